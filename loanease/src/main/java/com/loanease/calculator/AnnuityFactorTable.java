@@ -0,0 +1,104 @@
+package com.loanease.calculator;
+
+import com.loanease.util.LruCache;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Annuity factors {@code r(1+r)^n / ((1+r)^n - 1)}, the payment per unit of principal, computed to
+ * {@link #PRECISION} significant digits instead of exactly. Factors on the common grid of annual
+ * rates in steps of 1/8 percent up to 30% and the usual product terms are kept for the life of the
+ * process once computed; other factors go to a small LRU cache, since a book of loans typically
+ * shares a few hundred rate and term combinations. Grid factors are computed one at a time as they
+ * are asked for, so a short run that needs one schedule does not pay for all 3,360 of them.
+ *
+ * <p><b>Error bound.</b> With {@code u = 10^(1 - 34)}, {@code (1+r)^n} is rounded to 34 digits
+ * through {@link BigDecimal#pow(int, MathContext)}, which stays within a few ulps; it is taken as
+ * {@code 10u} here. Subtracting 1 magnifies that relative error by {@code X/(X-1)}, which equals
+ * {@code factor/r}, and the final division adds one rounding. So the relative error of a factor is at
+ * most {@code u(11 + 10 factor/r)}, see {@link #relativeErrorBound}. For a 0.01% rate over one
+ * period that is still below {@code 1e-27}.
+ */
+public final class AnnuityFactorTable {
+    public static final MathContext PRECISION = MathContext.DECIMAL128;
+    private static final double UNIT = 1e-33;
+    private static final int[] COMMON_TERMS = {12, 24, 36, 48, 60, 72, 84, 96, 120, 180, 240, 300, 360, 480};
+    private static final int RATE_STEPS = 240;
+    private static final BigDecimal RATE_STEP = new BigDecimal("0.00125");
+    private static final BigDecimal MONTHS = new BigDecimal("12");
+    private static final int MAX_TERM = 1 << 20;
+    private static final BigDecimal MAX_RATE = BigDecimal.ONE;
+    private static final LruCache<Long, BigDecimal> RECENT = new LruCache<>(4096);
+
+    private AnnuityFactorTable() {
+    }
+
+    /** Factor for a monthly rate at scale 10, as {@link FinancialCalculator} derives it, over {@code periods}. */
+    public static BigDecimal factor(BigDecimal monthlyRate, int periods) {
+        long key = key(monthlyRate, periods);
+        if (key < 0) {
+            return compute(monthlyRate, periods);
+        }
+        if (Common.contains(monthlyRate, periods)) {
+            return Common.FACTORS.computeIfAbsent(key, k -> compute(monthlyRate, periods));
+        }
+        return RECENT.getOrCompute(key, k -> compute(monthlyRate, periods));
+    }
+
+    /** Whether these inputs are on the common grid, whose factors are never evicted. */
+    public static boolean isPrecomputed(BigDecimal monthlyRate, int periods) {
+        return key(monthlyRate, periods) >= 0 && Common.contains(monthlyRate, periods);
+    }
+
+    /** Upper bound on the relative error of {@link #factor} for these inputs; see the class comment. */
+    public static double relativeErrorBound(BigDecimal monthlyRate, BigDecimal factor) {
+        return UNIT * (11 + 10 * factor.doubleValue() / monthlyRate.doubleValue());
+    }
+
+    static BigDecimal compute(BigDecimal monthlyRate, int periods) {
+        BigDecimal growth = BigDecimal.ONE.add(monthlyRate).pow(periods, PRECISION);
+        // Both of these are exact: the subtraction cannot exceed 34 digits and the product is unrounded
+        BigDecimal denominator = growth.subtract(BigDecimal.ONE);
+        BigDecimal numerator = monthlyRate.multiply(growth);
+        return numerator.divide(denominator, PRECISION);
+    }
+
+    static BigDecimal monthlyRate(BigDecimal annualInterestRate) {
+        return annualInterestRate.divide(MONTHS, 10, RoundingMode.HALF_UP);
+    }
+
+    /** Packs rate and term into one long, or returns -1 for inputs the table cannot hold. */
+    private static long key(BigDecimal monthlyRate, int periods) {
+        if (monthlyRate.scale() != 10 || periods >= MAX_TERM || monthlyRate.compareTo(MAX_RATE) > 0) {
+            return -1;
+        }
+        return monthlyRate.unscaledValue().longValue() << 20 | periods;
+    }
+
+    /** Set up the first time a factor is requested, not when the calculator class loads. */
+    private static final class Common {
+        static final Map<Long, BigDecimal> FACTORS = new ConcurrentHashMap<>(RATE_STEPS * COMMON_TERMS.length * 2);
+        // Unscaled monthly rates of the grid, at the scale monthlyRate produces
+        private static final Set<Long> RATES = rates();
+
+        static boolean contains(BigDecimal monthlyRate, int periods) {
+            return Arrays.binarySearch(COMMON_TERMS, periods) >= 0
+                && RATES.contains(monthlyRate.unscaledValue().longValue());
+        }
+
+        private static Set<Long> rates() {
+            Set<Long> rates = new HashSet<>(RATE_STEPS * 2);
+            for (int step = 1; step <= RATE_STEPS; step++) {
+                rates.add(monthlyRate(RATE_STEP.multiply(BigDecimal.valueOf(step))).unscaledValue().longValue());
+            }
+            return Set.copyOf(rates);
+        }
+    }
+}
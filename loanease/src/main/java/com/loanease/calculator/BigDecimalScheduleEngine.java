@@ -0,0 +1,65 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** Reference engine: every period is computed with {@link BigDecimal} through {@link FinancialCalculator}. */
+public class BigDecimalScheduleEngine implements ScheduleEngine {
+    private final FinancialCalculator calculator;
+
+    public BigDecimalScheduleEngine(FinancialCalculator calculator) {
+        this.calculator = calculator;
+    }
+
+    @Override
+    public Iterator<Payment> iterateSchedule(long loanId, Loan loan) {
+        return new ScheduleIterator(loanId, loan);
+    }
+
+    private class ScheduleIterator implements Iterator<Payment> {
+        private final long loanId;
+        private final BigDecimal monthlyRate;
+        private final int periods;
+        private BigDecimal payment;
+        private BigDecimal remainingBalance;
+        private int period = 1;
+
+        ScheduleIterator(long loanId, Loan loan) {
+            this.loanId = loanId;
+            this.monthlyRate = loan.getAnnualInterestRate().divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
+            this.periods = loan.getTermInMonths();
+            this.payment = calculator.computePMT(loan.getPrincipal(), loan.getAnnualInterestRate(), periods,
+                                                 loan.getPaymentFrequency())
+                    .add(loan.getExtraPayment());
+            this.remainingBalance = loan.getPrincipal();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return period <= periods && remainingBalance.compareTo(BigDecimal.ZERO) > 0;
+        }
+
+        @Override
+        public Payment next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BigDecimal interest = calculator.interestPortion(remainingBalance, monthlyRate);
+            BigDecimal principalPortion = calculator.principalPortion(payment, interest);
+            if (period == periods || principalPortion.compareTo(remainingBalance) > 0) {
+                principalPortion = remainingBalance;
+                payment = principalPortion.add(interest);
+            }
+            remainingBalance = remainingBalance.subtract(principalPortion);
+            return new Payment(loanId, period++,
+                               principalPortion.setScale(2, RoundingMode.HALF_UP),
+                               interest.setScale(2, RoundingMode.HALF_UP),
+                               remainingBalance.setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+}
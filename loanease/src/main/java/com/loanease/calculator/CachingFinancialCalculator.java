@@ -0,0 +1,74 @@
+package com.loanease.calculator;
+
+import com.loanease.util.CacheStats;
+import com.loanease.util.LruCache;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * {@link FinancialCalculator} that memoizes {@link #computePMT} in a bounded LRU cache. Portfolios
+ * built from standard products repeat the same (principal, rate, term, frequency) tuples, and the
+ * power series behind each payment is by far the most expensive part of a schedule. Keys compare
+ * amounts by value, so {@code 10000} and {@code 10000.00} share an entry. Safe for concurrent use.
+ */
+public class CachingFinancialCalculator extends FinancialCalculator {
+    private final LruCache<PmtKey, BigDecimal> cache;
+
+    public CachingFinancialCalculator(int maxEntries) {
+        this.cache = new LruCache<>(maxEntries);
+    }
+
+    @Override
+    public BigDecimal computePMT(BigDecimal principal, BigDecimal annualInterestRate,
+                                 int termInMonths, String paymentFrequency) {
+        if (principal == null || annualInterestRate == null || paymentFrequency == null) {
+            // Let the uncached path produce the usual validation error
+            return super.computePMT(principal, annualInterestRate, termInMonths, paymentFrequency);
+        }
+        PmtKey key = new PmtKey(principal, annualInterestRate, termInMonths, paymentFrequency);
+        return cache.getOrCompute(key, k ->
+                super.computePMT(principal, annualInterestRate, termInMonths, paymentFrequency));
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private static final class PmtKey {
+        private final BigDecimal principal;
+        private final BigDecimal annualInterestRate;
+        private final int termInMonths;
+        private final String paymentFrequency;
+        private final int hash;
+
+        PmtKey(BigDecimal principal, BigDecimal annualInterestRate, int termInMonths, String paymentFrequency) {
+            this.principal = principal.stripTrailingZeros();
+            this.annualInterestRate = annualInterestRate.stripTrailingZeros();
+            this.termInMonths = termInMonths;
+            this.paymentFrequency = paymentFrequency.toLowerCase(Locale.ROOT);
+            this.hash = Objects.hash(this.principal, this.annualInterestRate, termInMonths, this.paymentFrequency);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PmtKey)) {
+                return false;
+            }
+            PmtKey other = (PmtKey) o;
+            return termInMonths == other.termInMonths
+                    && principal.equals(other.principal)
+                    && annualInterestRate.equals(other.annualInterestRate)
+                    && paymentFrequency.equals(other.paymentFrequency);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.LoanEvent;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Amortizes a loan whose terms change part-way through, as recorded by {@link LoanEvent}s. At each
+ * rate change the payment is recomputed from the balance left, the new rate and the periods
+ * remaining; a prepayment is added to its period's payment and leaves the payment after it as it
+ * was. A schedule can therefore be resumed at any event from the balance before it and the payment
+ * in effect, and the rows up to that point stay as they are. Without events the rows are exactly
+ * those of {@link LongCentsScheduleEngine}.
+ */
+public class EventScheduleEngine {
+    private final FinancialCalculator calculator;
+
+    public EventScheduleEngine(FinancialCalculator calculator) {
+        this.calculator = calculator;
+    }
+
+    /** Emits the whole schedule with {@code events} applied and returns the last period emitted. */
+    public int generate(Loan loan, List<LoanEvent> events, PaymentSink sink) {
+        return resume(loan, events, 1, LongCentsScheduleEngine.toCents(loan.getPrincipal()), sink);
+    }
+
+    /**
+     * Emits periods {@code fromPeriod} to payoff, starting from {@code openingBalanceCents}, the
+     * balance left after {@code fromPeriod - 1}. {@code fromPeriod} must be one where the payment
+     * is set, see {@link #paymentResetPeriod}. {@code events} must be sorted by
+     * {@link LoanEvent#BY_PERIOD}.
+     *
+     * @return the last period emitted, or {@code fromPeriod - 1} if none was
+     */
+    public int resume(Loan loan, List<LoanEvent> events, int fromPeriod, long openingBalanceCents, PaymentSink sink) {
+        if (paymentResetPeriod(events, fromPeriod) != fromPeriod) {
+            throw new IllegalArgumentException("No rate change in period " + fromPeriod);
+        }
+        return resume(loan, events, fromPeriod, openingBalanceCents, -1, sink);
+    }
+
+    /**
+     * Like {@link #resume(Loan, List, int, long, PaymentSink)} but from any period, continuing with
+     * {@code paymentCents}, the regular payment in effect there; see {@link #paymentCents}. A rate
+     * change in {@code fromPeriod} replaces it as usual.
+     */
+    public int resume(Loan loan, List<LoanEvent> events, int fromPeriod, long openingBalanceCents,
+                      long paymentCents, PaymentSink sink) {
+        if (!LongCentsScheduleEngine.supports(loan)) {
+            throw new IllegalArgumentException("Loans with events must have whole-cent amounts");
+        }
+        int periods = loan.getTermInMonths();
+        BigDecimal rate = rateInEffect(loan, events, fromPeriod);
+        long monthlyRate = LongCentsScheduleEngine.monthlyRateFixed(rate);
+        long payment = paymentCents;
+        BalanceTracker tracker = new BalanceTracker(sink, openingBalanceCents);
+        int period = fromPeriod;
+        int last = fromPeriod - 1;
+        while (period <= periods && tracker.balanceCents > 0) {
+            LoanEvent change = eventAt(events, period, LoanEvent.Type.RATE_CHANGE);
+            if (change != null) {
+                rate = change.getAnnualInterestRate();
+                monthlyRate = LongCentsScheduleEngine.monthlyRateFixed(rate);
+            }
+            if (change != null || payment < 0) {
+                payment = paymentCents(loan, tracker.balanceCents, rate, periods - period + 1);
+            }
+            LoanEvent prepayment = eventAt(events, period, LoanEvent.Type.PREPAYMENT);
+            int next;
+            if (prepayment != null) {
+                next = period + 1;
+                last = LongCentsScheduleEngine.amortize(tracker.balanceCents, monthlyRate,
+                        payment + LongCentsScheduleEngine.toCents(prepayment.getAmount()), period, period, periods,
+                        tracker);
+            } else {
+                next = nextEvent(events, period, periods);
+                last = LongCentsScheduleEngine.amortize(tracker.balanceCents, monthlyRate, payment, period, next - 1,
+                                                        periods, tracker);
+            }
+            if (last < next - 1) {
+                break;
+            }
+            period = next;
+        }
+        return last;
+    }
+
+    /**
+     * Regular payment set in {@code resetPeriod}, a {@link #paymentResetPeriod}, given the balance
+     * left before it. Together with that balance this is all {@link #resume} needs to continue
+     * from any later period up to the next rate change.
+     */
+    public long paymentCents(Loan loan, List<LoanEvent> events, int resetPeriod, long balanceCents) {
+        return paymentCents(loan, balanceCents, rateInEffect(loan, events, resetPeriod),
+                            loan.getTermInMonths() - resetPeriod + 1);
+    }
+
+    /** Latest period at or before {@code period} in which the payment is set: a rate change, or 1. */
+    public static int paymentResetPeriod(List<LoanEvent> events, int period) {
+        int reset = 1;
+        for (LoanEvent event : events) {
+            if (event.getPeriod() > period) {
+                break;
+            }
+            if (event.getType() == LoanEvent.Type.RATE_CHANGE) {
+                reset = event.getPeriod();
+            }
+        }
+        return reset;
+    }
+
+    /** Payment in cents that clears {@code balanceCents} at {@code rate} over {@code remaining} periods. */
+    private long paymentCents(Loan loan, long balanceCents, BigDecimal rate, int remaining) {
+        return LongCentsScheduleEngine.toCents(calculator.computePMT(BigDecimal.valueOf(balanceCents, 2), rate,
+                                                                     remaining, loan.getPaymentFrequency()))
+                + LongCentsScheduleEngine.toCents(loan.getExtraPayment());
+    }
+
+    /** Rate of the latest change at or before {@code period}, or the loan's own rate. */
+    static BigDecimal rateInEffect(Loan loan, List<LoanEvent> events, int period) {
+        BigDecimal rate = loan.getAnnualInterestRate();
+        for (LoanEvent event : events) {
+            if (event.getPeriod() > period) {
+                break;
+            }
+            if (event.getType() == LoanEvent.Type.RATE_CHANGE) {
+                rate = event.getAnnualInterestRate();
+            }
+        }
+        return rate;
+    }
+
+    private static LoanEvent eventAt(List<LoanEvent> events, int period, LoanEvent.Type type) {
+        for (LoanEvent event : events) {
+            if (event.getPeriod() > period) {
+                break;
+            }
+            if (event.getPeriod() == period && event.getType() == type) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /** First event of any type after {@code period}, or {@code periods + 1} if there is none. */
+    private static int nextEvent(List<LoanEvent> events, int period, int periods) {
+        for (LoanEvent event : events) {
+            if (event.getPeriod() > period) {
+                return Math.min(event.getPeriod(), periods + 1);
+            }
+        }
+        return periods + 1;
+    }
+
+    /** Forwards rows while keeping the balance, which is where the next segment starts. */
+    private static final class BalanceTracker implements PaymentSink {
+        private final PaymentSink sink;
+        private long balanceCents;
+
+        BalanceTracker(PaymentSink sink, long balanceCents) {
+            this.sink = sink;
+            this.balanceCents = balanceCents;
+        }
+
+        @Override
+        public void accept(int period, long principalCents, long interestCents, long remainingBalanceCents) {
+            balanceCents = remainingBalanceCents;
+            sink.accept(period, principalCents, interestCents, remainingBalanceCents);
+        }
+    }
+}
@@ -4,29 +4,51 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 public class FinancialCalculator {
+    /** Up to this many periods the exact power is cheaper than the 34-digit one. */
+    static final int EXACT_TERM_LIMIT = 60;
+
+    /**
+     * Payment per period, rounded half-up to the cent. The annuity factor comes from
+     * {@link AnnuityFactorTable} at 34 significant digits, which is far cheaper than the exact power
+     * for long terms. The result is always the cent {@link #computePMTExact} returns: when the
+     * approximate payment lies closer to a half-cent rounding boundary than its error bound, the
+     * exact calculation decides. Short terms off the precomputed grid use the exact power directly.
+     */
     public BigDecimal computePMT(BigDecimal principal, BigDecimal annualInterestRate, 
                                 int termInMonths, String paymentFrequency) {
-        // Input validation
-        if (principal == null || principal.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Principal must be positive");
-        }
-        if (annualInterestRate == null || annualInterestRate.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Interest rate cannot be negative");
+        validate(principal, annualInterestRate, termInMonths, paymentFrequency);
+        BigDecimal ratePerPeriod = annualInterestRate.divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
+        if (ratePerPeriod.compareTo(BigDecimal.ZERO) == 0) {
+            return principal.divide(new BigDecimal(termInMonths), 2, RoundingMode.HALF_UP);
         }
-        if (termInMonths <= 0) {
-            throw new IllegalArgumentException("Term must be positive");
+        if (termInMonths <= EXACT_TERM_LIMIT && !AnnuityFactorTable.isPrecomputed(ratePerPeriod, termInMonths)) {
+            return exactPMT(principal, ratePerPeriod, termInMonths);
         }
-        if (!paymentFrequency.equalsIgnoreCase("Monthly")) {
-            throw new IllegalArgumentException("Only Monthly frequency is supported");
+        BigDecimal factor = AnnuityFactorTable.factor(ratePerPeriod, termInMonths);
+        BigDecimal payment = principal.multiply(factor, AnnuityFactorTable.PRECISION);
+        // One more rounding for the multiplication, and a factor of two to spare
+        double errorCents = 2 * payment.doubleValue() * 100
+                * (AnnuityFactorTable.relativeErrorBound(ratePerPeriod, factor) + 1e-33);
+        BigDecimal cents = payment.movePointRight(2);
+        double distanceToHalf = Math.abs(cents.subtract(cents.setScale(0, RoundingMode.FLOOR)).doubleValue() - 0.5);
+        if (distanceToHalf > errorCents) {
+            return payment.setScale(2, RoundingMode.HALF_UP);
         }
+        return exactPMT(principal, ratePerPeriod, termInMonths);
+    }
 
+    /** Payment computed with the exact power {@code (1+r)^n}; the reference for {@link #computePMT}. */
+    public BigDecimal computePMTExact(BigDecimal principal, BigDecimal annualInterestRate,
+                                      int termInMonths, String paymentFrequency) {
+        validate(principal, annualInterestRate, termInMonths, paymentFrequency);
         BigDecimal ratePerPeriod = annualInterestRate.divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
-        int periods = termInMonths;
-
         if (ratePerPeriod.compareTo(BigDecimal.ZERO) == 0) {
-            return principal.divide(new BigDecimal(periods), 2, RoundingMode.HALF_UP);
+            return principal.divide(new BigDecimal(termInMonths), 2, RoundingMode.HALF_UP);
         }
+        return exactPMT(principal, ratePerPeriod, termInMonths);
+    }
 
+    private static BigDecimal exactPMT(BigDecimal principal, BigDecimal ratePerPeriod, int periods) {
         // PMT = P * [r(1+r)^n] / [(1+r)^n - 1]
         BigDecimal onePlusRate = BigDecimal.ONE.add(ratePerPeriod);
         BigDecimal onePlusRatePowN = onePlusRate.pow(periods);
@@ -35,6 +57,23 @@ public class FinancialCalculator {
         return principal.multiply(numerator).divide(denominator, 2, RoundingMode.HALF_UP);
     }
 
+    private static void validate(BigDecimal principal, BigDecimal annualInterestRate, int termInMonths,
+                                 String paymentFrequency) {
+        // Input validation
+        if (principal == null || principal.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Principal must be positive");
+        }
+        if (annualInterestRate == null || annualInterestRate.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Interest rate cannot be negative");
+        }
+        if (termInMonths <= 0) {
+            throw new IllegalArgumentException("Term must be positive");
+        }
+        if (!paymentFrequency.equalsIgnoreCase("Monthly")) {
+            throw new IllegalArgumentException("Only Monthly frequency is supported");
+        }
+    }
+
     public BigDecimal roundCurrency(BigDecimal value) {
         return value.setScale(2, RoundingMode.HALF_UP);
     }
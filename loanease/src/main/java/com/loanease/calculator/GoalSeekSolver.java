@@ -0,0 +1,207 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.ScenarioSummary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Finds the smallest extra payment, or the highest rate, at which a loan still meets a
+ * {@link Goal}. Both searches run over whole units (cents of extra payment, or 0.0001 of annual
+ * rate, the precision rates are stored with) because the payoff period and total interest only
+ * move in steps of a cent. Each trial runs the allocation-free cents loop; nothing is persisted.
+ */
+public class GoalSeekSolver {
+    /** Largest annual rate the rate search considers, 100%. */
+    static final int MAX_RATE_STEPS = 10_000;
+    private static final int RATE_SCALE = 4;
+
+    private final FinancialCalculator calculator;
+    private final LongCentsScheduleEngine engine;
+
+    public GoalSeekSolver(FinancialCalculator calculator) {
+        this.calculator = calculator;
+        this.engine = new LongCentsScheduleEngine(calculator);
+    }
+
+    /**
+     * Minimal extra payment per period, replacing the loan's own, that meets {@code goal} at the
+     * loan's rate. Throws if even paying the whole principal in the first period would not.
+     */
+    public ScenarioSummary solveExtraPayment(Loan loan, Goal goal) {
+        BigDecimal rate = loan.getAnnualInterestRate();
+        long pmtCents = LongCentsScheduleEngine.toCents(calculator.computePMT(
+                loan.getPrincipal(), rate, loan.getTermInMonths(), loan.getPaymentFrequency()));
+        long lo = 0;
+        long hi = loan.getPrincipal().setScale(2, RoundingMode.UP).unscaledValue().longValueExact();
+        ScheduleTotals trial = evaluate(loan, rate, pmtCents, lo);
+        if (goal.isMetBy(trial)) {
+            return summarize(loan, rate, lo, trial);
+        }
+        trial = evaluate(loan, rate, pmtCents, hi);
+        if (!goal.isMetBy(trial)) {
+            throw new IllegalArgumentException("Goal cannot be reached with any extra payment");
+        }
+        // Invariant: lo misses the goal, hi meets it
+        while (hi - lo > 1) {
+            long mid = (lo + hi) >>> 1;
+            if (goal.isMetBy(evaluate(loan, rate, pmtCents, mid))) {
+                hi = mid;
+            } else {
+                lo = mid;
+            }
+        }
+        return summarize(loan, rate, hi, evaluate(loan, rate, pmtCents, hi));
+    }
+
+    /**
+     * Highest annual rate, to four decimals, at which the loan with its own extra payment still
+     * meets {@code goal}. Throws if the goal is missed at every rate up to 100%.
+     *
+     * <p>Total interest rises steadily with the rate, so an interest cap is bisected. Each exact
+     * trial needs a BigDecimal power series for the payment, so the bisection uses a
+     * double-precision payment first and then checks the neighbourhood of that answer exactly,
+     * stepping a unit at a time where the approximation was off by a cent.
+     *
+     * <p>The payoff period does not move steadily with the rate: a higher rate raises the regular
+     * payment, so with an extra payment on top the loan can pay off sooner than at a lower rate.
+     * A payoff goal is therefore checked rate by rate, downward from the highest rate the interest
+     * cap allows, until one pays off in time.
+     */
+    public ScenarioSummary solveMaximumRate(Loan loan, Goal goal) {
+        long extraCents = LongCentsScheduleEngine.toCents(loan.getExtraPayment().setScale(2, RoundingMode.HALF_UP));
+        int ceiling = goal.capsInterest() ? maximumRateWithinInterestCap(loan, goal, extraCents) : MAX_RATE_STEPS;
+        int best = ceiling;
+        ScheduleTotals trial = evaluateAtRate(loan, best, extraCents, true);
+        while (!goal.isMetBy(trial)) {
+            // Scanned with the approximate payment; only candidates are checked exactly
+            do {
+                if (--best < 0) {
+                    throw new IllegalArgumentException("Goal cannot be reached at any interest rate");
+                }
+            } while (!goal.isMetBy(evaluateAtRate(loan, best, extraCents, false)));
+            trial = evaluateAtRate(loan, best, extraCents, true);
+        }
+        while (best < ceiling) {
+            ScheduleTotals next = evaluateAtRate(loan, best + 1, extraCents, true);
+            if (!goal.isMetBy(next)) {
+                break;
+            }
+            best++;
+            trial = next;
+        }
+        return summarize(loan, BigDecimal.valueOf(best, RATE_SCALE), extraCents, trial);
+    }
+
+    /** Highest rate in steps of 0.0001 at which total interest is within the goal's cap. */
+    private int maximumRateWithinInterestCap(Loan loan, Goal goal, long extraCents) {
+        if (!goal.isInterestMetBy(evaluateAtRate(loan, 0, extraCents, true))) {
+            throw new IllegalArgumentException("Goal cannot be reached at any interest rate");
+        }
+        int lo = 0;
+        int hi = MAX_RATE_STEPS + 1;
+        // Invariant (approximately): lo meets the cap, hi misses it
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (goal.isInterestMetBy(evaluateAtRate(loan, mid, extraCents, false))) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        int best = lo;
+        while (!goal.isInterestMetBy(evaluateAtRate(loan, best, extraCents, true))) {
+            best--;
+        }
+        while (best < MAX_RATE_STEPS && goal.isInterestMetBy(evaluateAtRate(loan, best + 1, extraCents, true))) {
+            best++;
+        }
+        return best;
+    }
+
+    private ScheduleTotals evaluateAtRate(Loan loan, int rateSteps, long extraCents, boolean exact) {
+        BigDecimal rate = BigDecimal.valueOf(rateSteps, RATE_SCALE);
+        long pmtCents = exact || !LongCentsScheduleEngine.isWholeCents(loan.getPrincipal())
+                ? LongCentsScheduleEngine.toCents(calculator.computePMT(
+                        loan.getPrincipal(), rate, loan.getTermInMonths(), loan.getPaymentFrequency()))
+                : approximatePmtCents(loan, rate);
+        return evaluate(loan, rate, pmtCents, extraCents);
+    }
+
+    /** Payment from the annuity formula in doubles; within a cent of {@link FinancialCalculator#computePMT}. */
+    private static long approximatePmtCents(Loan loan, BigDecimal rate) {
+        double principal = loan.getPrincipal().doubleValue();
+        double monthlyRate = rate.doubleValue() / 12;
+        int n = loan.getTermInMonths();
+        if (monthlyRate == 0) {
+            return Math.round(principal / n * 100);
+        }
+        return Math.round(principal * monthlyRate / -Math.expm1(-n * Math.log1p(monthlyRate)) * 100);
+    }
+
+    private ScheduleTotals evaluate(Loan loan, BigDecimal rate, long pmtCents, long extraCents) {
+        ScheduleTotals totals = new ScheduleTotals();
+        if (LongCentsScheduleEngine.isWholeCents(loan.getPrincipal())) {
+            LongCentsScheduleEngine.amortize(LongCentsScheduleEngine.toCents(loan.getPrincipal()),
+                    LongCentsScheduleEngine.monthlyRateFixed(rate), pmtCents + extraCents,
+                    1, loan.getTermInMonths(), loan.getTermInMonths(), totals);
+        } else {
+            engine.generate(new Loan(loan.getPrincipal(), rate, loan.getTermInMonths(), loan.getPaymentFrequency(),
+                                     BigDecimal.valueOf(extraCents, 2)), totals);
+        }
+        return totals;
+    }
+
+    private ScenarioSummary summarize(Loan loan, BigDecimal rate, long extraCents, ScheduleTotals totals) {
+        ScheduleTotals base = new ScheduleTotals();
+        engine.generate(loan, base);
+        return new ScenarioSummary(rate, BigDecimal.valueOf(extraCents, 2), totals.lastPeriod,
+                                   totals.interestCents, base.interestCents - totals.interestCents);
+    }
+
+    /** Target a solution must meet: a payoff period, a cap on total interest, or both. */
+    public static final class Goal {
+        private final int payoffPeriod;
+        private final long maxInterestCents;
+
+        /**
+         * @param payoffPeriod     latest period by which the loan must be paid off, or 0 for no limit
+         * @param maxTotalInterest most interest that may be paid over the loan, or {@code null} for no limit
+         */
+        public Goal(int payoffPeriod, BigDecimal maxTotalInterest) {
+            if (payoffPeriod < 0) {
+                throw new IllegalArgumentException("Payoff period cannot be negative");
+            }
+            if (maxTotalInterest != null && maxTotalInterest.signum() < 0) {
+                throw new IllegalArgumentException("Interest cap cannot be negative");
+            }
+            if (payoffPeriod == 0 && maxTotalInterest == null) {
+                throw new IllegalArgumentException("Goal needs a payoff period or an interest cap");
+            }
+            this.payoffPeriod = payoffPeriod;
+            this.maxInterestCents = maxTotalInterest == null ? Long.MAX_VALUE
+                    : maxTotalInterest.setScale(2, RoundingMode.DOWN).unscaledValue().longValueExact();
+        }
+
+        public static Goal payoffBy(int period) {
+            return new Goal(period, null);
+        }
+
+        public static Goal interestAtMost(BigDecimal maxTotalInterest) {
+            return new Goal(0, maxTotalInterest);
+        }
+
+        boolean isMetBy(ScheduleTotals totals) {
+            return (payoffPeriod == 0 || totals.lastPeriod <= payoffPeriod) && isInterestMetBy(totals);
+        }
+
+        boolean isInterestMetBy(ScheduleTotals totals) {
+            return totals.interestCents <= maxInterestCents;
+        }
+
+        boolean capsInterest() {
+            return maxInterestCents != Long.MAX_VALUE;
+        }
+    }
+}
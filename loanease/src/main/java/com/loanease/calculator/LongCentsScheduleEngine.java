@@ -0,0 +1,186 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Schedule engine working on {@code long} cents. The monthly rate is held as a fixed-point integer
+ * with ten decimals, the same precision {@link BigDecimalScheduleEngine} divides to, and each
+ * interest amount is rounded half-up to the cent, so both engines produce identical rows.
+ * The per-period loop allocates nothing; only the payment amount is computed with BigDecimal,
+ * once per loan.
+ */
+public class LongCentsScheduleEngine implements ScheduleEngine {
+    static final int RATE_SCALE = 10;
+    static final long RATE_ONE = 10_000_000_000L;
+    private static final long HALF_RATE_ONE = RATE_ONE / 2;
+
+    private final FinancialCalculator calculator;
+    private final BigDecimalScheduleEngine fallback;
+
+    public LongCentsScheduleEngine(FinancialCalculator calculator) {
+        this.calculator = calculator;
+        this.fallback = new BigDecimalScheduleEngine(calculator);
+    }
+
+    @Override
+    public List<Payment> generateSchedule(long loanId, Loan loan) {
+        List<Payment> schedule = new ArrayList<>(loan.getTermInMonths());
+        generate(loan, (period, principalCents, interestCents, balanceCents) ->
+                schedule.add(new Payment(loanId, period,
+                                         BigDecimal.valueOf(principalCents, 2),
+                                         BigDecimal.valueOf(interestCents, 2),
+                                         BigDecimal.valueOf(balanceCents, 2))));
+        return schedule;
+    }
+
+    @Override
+    public Schedule generateColumnar(long loanId, Loan loan) {
+        Schedule schedule = new Schedule(loanId, loan.getTermInMonths());
+        generate(loan, schedule::add);
+        schedule.trimToSize();
+        return schedule;
+    }
+
+    @Override
+    public Iterator<Payment> iterateSchedule(long loanId, Loan loan) {
+        if (!supports(loan)) {
+            return fallback.iterateSchedule(loanId, loan);
+        }
+        return new CentsIterator(loanId, toCents(loan.getPrincipal()),
+                                 monthlyRateFixed(loan.getAnnualInterestRate()), paymentCents(loan),
+                                 loan.getTermInMonths());
+    }
+
+    /**
+     * Emits every period of the schedule to {@code sink} and returns the number of periods.
+     * Loans whose principal or extra payment are not whole cents are delegated to the BigDecimal engine.
+     */
+    public int generate(Loan loan, PaymentSink sink) {
+        if (!supports(loan)) {
+            return generateWithFallback(loan, sink);
+        }
+        return amortize(toCents(loan.getPrincipal()), monthlyRateFixed(loan.getAnnualInterestRate()),
+                        paymentCents(loan), 1, loan.getTermInMonths(), loan.getTermInMonths(), sink);
+    }
+
+    /** Whether the loan can be amortized in whole cents without delegating to the BigDecimal engine. */
+    static boolean supports(Loan loan) {
+        return isWholeCents(loan.getPrincipal()) && isWholeCents(loan.getExtraPayment());
+    }
+
+    /** Scheduled payment per period in cents, including the extra payment. */
+    long paymentCents(Loan loan) {
+        return toCents(calculator.computePMT(loan.getPrincipal(), loan.getAnnualInterestRate(),
+                                             loan.getTermInMonths(), loan.getPaymentFrequency()))
+                + toCents(loan.getExtraPayment());
+    }
+
+    /**
+     * Runs periods {@code firstPeriod..lastPeriod} starting from the balance left after
+     * {@code firstPeriod - 1}, stopping early once the loan is paid off. {@code periods} is the
+     * loan term, whose final period always clears the remaining balance.
+     *
+     * @return the last period emitted, or {@code firstPeriod - 1} if none was
+     */
+    static int amortize(long balanceCents, long monthlyRate, long paymentCents, int firstPeriod, int lastPeriod,
+                        int periods, PaymentSink sink) {
+        int period = firstPeriod;
+        for (; period <= lastPeriod && balanceCents > 0; period++) {
+            long interestCents = interestCents(balanceCents, monthlyRate);
+            long principalCents = paymentCents - interestCents;
+            if (period == periods || principalCents > balanceCents) {
+                principalCents = balanceCents;
+            }
+            balanceCents -= principalCents;
+            sink.accept(period, principalCents, interestCents, balanceCents);
+        }
+        return period - 1;
+    }
+
+    /** {@code balance * rate} rounded half-up to the cent, where {@code rate} carries ten decimals. */
+    static long interestCents(long balanceCents, long monthlyRate) {
+        long high = Math.multiplyHigh(balanceCents, monthlyRate);
+        long product = balanceCents * monthlyRate;
+        if (high == 0 && product >= 0 && product <= Long.MAX_VALUE - HALF_RATE_ONE) {
+            return (product + HALF_RATE_ONE) / RATE_ONE;
+        }
+        // Balances in the hundreds of millions at high rates no longer fit in 63 bits
+        return BigDecimal.valueOf(balanceCents).multiply(BigDecimal.valueOf(monthlyRate))
+                .divide(BigDecimal.valueOf(RATE_ONE), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    static long monthlyRateFixed(BigDecimal annualInterestRate) {
+        return annualInterestRate.divide(new BigDecimal("12"), RATE_SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+    }
+
+    static boolean isWholeCents(BigDecimal amount) {
+        return amount.scale() <= 2 || amount.stripTrailingZeros().scale() <= 2;
+    }
+
+    /** Whole cents of {@code amount}, rounded half-up like every stored amount; throws if it exceeds a long. */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private int generateWithFallback(Loan loan, PaymentSink sink) {
+        List<Payment> schedule = fallback.generateSchedule(0, loan);
+        for (Payment p : schedule) {
+            sink.accept(p.getPeriod(), toCents(p.getPrincipalPortion()), toCents(p.getInterestPortion()),
+                        toCents(p.getRemainingBalance()));
+        }
+        return schedule.size();
+    }
+
+    /** Steps the cents loop one period per {@link #next()}; only the returned Payment is allocated. */
+    private static class CentsIterator implements Iterator<Payment>, PaymentSink {
+        private final long loanId;
+        private final long monthlyRate;
+        private final long paymentCents;
+        private final int periods;
+        private long balanceCents;
+        private int period = 1;
+        private long principalCents;
+        private long interestCents;
+
+        CentsIterator(long loanId, long balanceCents, long monthlyRate, long paymentCents, int periods) {
+            this.loanId = loanId;
+            this.balanceCents = balanceCents;
+            this.monthlyRate = monthlyRate;
+            this.paymentCents = paymentCents;
+            this.periods = periods;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return period <= periods && balanceCents > 0;
+        }
+
+        @Override
+        public Payment next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            amortize(balanceCents, monthlyRate, paymentCents, period, period, periods, this);
+            return new Payment(loanId, period++, BigDecimal.valueOf(principalCents, 2),
+                               BigDecimal.valueOf(interestCents, 2), BigDecimal.valueOf(balanceCents, 2));
+        }
+
+        @Override
+        public void accept(int period, long principalCents, long interestCents, long remainingBalanceCents) {
+            this.principalCents = principalCents;
+            this.interestCents = interestCents;
+            this.balanceCents = remainingBalanceCents;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.loanease.calculator;
+
+/** Receives schedule rows as whole cents, so producers can emit them without allocating. */
+@FunctionalInterface
+public interface PaymentSink {
+    void accept(int period, long principalCents, long interestCents, long remainingBalanceCents);
+}
@@ -0,0 +1,122 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.PortfolioCashFlow;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sums the schedules of a book of loans per period on a fork-join pool without materializing any
+ * of them. Each leaf task runs its slice of loans through the cents engine into its own
+ * {@code long[]} accumulators; the parent adds its children's arrays once both are done, so no
+ * two threads ever write the same array.
+ */
+public class PortfolioAggregator {
+    /** Leaves per worker thread; enough to balance uneven terms while keeping merges few. */
+    private static final int LEAVES_PER_THREAD = 8;
+    private static final int MIN_LOANS_PER_TASK = 64;
+
+    private final LongCentsScheduleEngine engine;
+    private final ForkJoinPool pool;
+
+    public PortfolioAggregator(FinancialCalculator calculator) {
+        this(calculator, ForkJoinPool.commonPool());
+    }
+
+    public PortfolioAggregator(FinancialCalculator calculator, ForkJoinPool pool) {
+        this.engine = new LongCentsScheduleEngine(calculator);
+        this.pool = pool;
+    }
+
+    public PortfolioCashFlow aggregate(List<Loan> loans) {
+        int periods = 0;
+        for (Loan loan : loans) {
+            periods = Math.max(periods, loan.getTermInMonths());
+        }
+        int threshold = Math.max(MIN_LOANS_PER_TASK, loans.size() / (pool.getParallelism() * LEAVES_PER_THREAD));
+        Accumulator totals = pool.invoke(new SliceTask(loans, 0, loans.size(), threshold, periods));
+        return totals.toCashFlow(loans.size());
+    }
+
+    /** Per-period sums for one slice of the book. */
+    private static final class Accumulator implements PaymentSink {
+        private final long[] principalCents;
+        private final long[] interestCents;
+        private final long[] balanceCents;
+        private final int[] activeLoans;
+        private int lastPeriod;
+
+        Accumulator(int periods) {
+            this.principalCents = new long[periods];
+            this.interestCents = new long[periods];
+            this.balanceCents = new long[periods];
+            this.activeLoans = new int[periods];
+        }
+
+        @Override
+        public void accept(int period, long principalCents, long interestCents, long remainingBalanceCents) {
+            int i = period - 1;
+            this.principalCents[i] += principalCents;
+            this.interestCents[i] += interestCents;
+            this.balanceCents[i] += remainingBalanceCents;
+            this.activeLoans[i]++;
+            if (period > lastPeriod) {
+                lastPeriod = period;
+            }
+        }
+
+        void add(Accumulator other) {
+            for (int i = 0; i < other.lastPeriod; i++) {
+                principalCents[i] += other.principalCents[i];
+                interestCents[i] += other.interestCents[i];
+                balanceCents[i] += other.balanceCents[i];
+                activeLoans[i] += other.activeLoans[i];
+            }
+            lastPeriod = Math.max(lastPeriod, other.lastPeriod);
+        }
+
+        /** Trims the columns to the last period with a payment, which early payoffs can bring forward. */
+        PortfolioCashFlow toCashFlow(int loanCount) {
+            return new PortfolioCashFlow(loanCount, Arrays.copyOf(principalCents, lastPeriod),
+                                         Arrays.copyOf(interestCents, lastPeriod),
+                                         Arrays.copyOf(balanceCents, lastPeriod),
+                                         Arrays.copyOf(activeLoans, lastPeriod));
+        }
+    }
+
+    private class SliceTask extends RecursiveTask<Accumulator> {
+        private final List<Loan> loans;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int periods;
+
+        SliceTask(List<Loan> loans, int from, int to, int threshold, int periods) {
+            this.loans = loans;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.periods = periods;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= threshold) {
+                Accumulator accumulator = new Accumulator(periods);
+                for (int i = from; i < to; i++) {
+                    engine.generate(loans.get(i), accumulator);
+                }
+                return accumulator;
+            }
+            int mid = (from + to) >>> 1;
+            SliceTask right = new SliceTask(loans, mid, to, threshold, periods);
+            right.fork();
+            Accumulator left = new SliceTask(loans, from, mid, threshold, periods).compute();
+            left.add(right.join());
+            return left;
+        }
+    }
+}
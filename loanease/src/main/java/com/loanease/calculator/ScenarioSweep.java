@@ -0,0 +1,127 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.ScenarioGrid;
+import com.loanease.model.ScenarioSummary;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Evaluates a loan over a grid of rates and extra payments in memory on a fork-join pool. Only
+ * the summary of each cell is kept, never its schedule. The scheduled payment depends on the rate
+ * alone, so it is computed once per row; every cell then runs the allocation-free cents loop.
+ */
+public class ScenarioSweep {
+    private static final int CELLS_PER_TASK = 8;
+
+    private final FinancialCalculator calculator;
+    private final LongCentsScheduleEngine engine;
+    private final ForkJoinPool pool;
+
+    public ScenarioSweep(FinancialCalculator calculator) {
+        this(calculator, ForkJoinPool.commonPool());
+    }
+
+    public ScenarioSweep(FinancialCalculator calculator, ForkJoinPool pool) {
+        this.calculator = calculator;
+        this.engine = new LongCentsScheduleEngine(calculator);
+        this.pool = pool;
+    }
+
+    /** Runs every combination of {@code rates} and {@code extraPayments} against the loan's other terms. */
+    public ScenarioGrid sweep(Loan loan, List<BigDecimal> rates, List<BigDecimal> extraPayments) {
+        if (rates.isEmpty() || extraPayments.isEmpty()) {
+            throw new IllegalArgumentException("Sweep needs at least one rate and one extra payment");
+        }
+        for (BigDecimal extra : extraPayments) {
+            if (extra.signum() < 0) {
+                throw new IllegalArgumentException("Extra payment cannot be negative");
+            }
+        }
+        ScheduleTotals baseTotals = new ScheduleTotals();
+        engine.generate(loan, baseTotals);
+        ScenarioSummary base = new ScenarioSummary(loan.getAnnualInterestRate(), loan.getExtraPayment(),
+                                                   baseTotals.lastPeriod, baseTotals.interestCents, 0);
+
+        int columns = extraPayments.size();
+        int cells = rates.size() * columns;
+        long[] pmtCents = new long[rates.size()];
+        long[] rateFixed = new long[rates.size()];
+        int[] payoffPeriods = new int[cells];
+        long[] totalInterest = new long[cells];
+        boolean wholeCents = LongCentsScheduleEngine.isWholeCents(loan.getPrincipal())
+                && extraPayments.stream().allMatch(LongCentsScheduleEngine::isWholeCents);
+        long principalCents = wholeCents ? LongCentsScheduleEngine.toCents(loan.getPrincipal()) : 0;
+
+        pool.invoke(new RangeTask(0, rates.size(), 1, row -> {
+            BigDecimal rate = rates.get(row);
+            pmtCents[row] = LongCentsScheduleEngine.toCents(calculator.computePMT(
+                    loan.getPrincipal(), rate, loan.getTermInMonths(), loan.getPaymentFrequency()));
+            rateFixed[row] = LongCentsScheduleEngine.monthlyRateFixed(rate);
+        }));
+        pool.invoke(new RangeTask(0, cells, CELLS_PER_TASK, cell -> {
+            int row = cell / columns;
+            BigDecimal extra = extraPayments.get(cell % columns);
+            ScheduleTotals totals = new ScheduleTotals();
+            if (wholeCents) {
+                LongCentsScheduleEngine.amortize(principalCents, rateFixed[row],
+                        pmtCents[row] + LongCentsScheduleEngine.toCents(extra),
+                        1, loan.getTermInMonths(), loan.getTermInMonths(), totals);
+            } else {
+                // Fractional cents need the BigDecimal engine's rounding, which generate falls back to
+                engine.generate(new Loan(loan.getPrincipal(), rates.get(row), loan.getTermInMonths(),
+                                         loan.getPaymentFrequency(), extra), totals);
+            }
+            payoffPeriods[cell] = totals.lastPeriod;
+            totalInterest[cell] = totals.interestCents;
+        }));
+        return new ScenarioGrid(rates, extraPayments, base, payoffPeriods, totalInterest);
+    }
+
+    /** {@code from}, {@code from + step}, ... up to and including {@code to}. */
+    public static List<BigDecimal> steps(BigDecimal from, BigDecimal to, BigDecimal step) {
+        if (step.signum() <= 0) {
+            throw new IllegalArgumentException("Step must be positive");
+        }
+        if (from.compareTo(to) > 0) {
+            throw new IllegalArgumentException("Range start must not exceed its end");
+        }
+        List<BigDecimal> values = new ArrayList<>();
+        for (BigDecimal value = from; value.compareTo(to) <= 0; value = value.add(step)) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    /** Splits {@code [from, to)} in halves until at most {@code threshold} indices remain. */
+    private static class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final IntConsumer body;
+
+        RangeTask(int from, int to, int threshold, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, threshold, body), new RangeTask(mid, to, threshold, body));
+        }
+    }
+}
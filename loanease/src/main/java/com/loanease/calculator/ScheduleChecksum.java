@@ -0,0 +1,64 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * CRC-32C over a schedule's rows in cents, used to check that a schedule regenerated on read is
+ * the one that was originally computed. Feed it rows in order as a {@link PaymentSink}.
+ */
+public final class ScheduleChecksum implements PaymentSink {
+    private final CRC32C crc = new CRC32C();
+    private final byte[] row = new byte[Integer.BYTES + 3 * Long.BYTES];
+    private int rows;
+
+    public static long of(List<Payment> schedule) {
+        ScheduleChecksum checksum = new ScheduleChecksum();
+        for (Payment p : schedule) {
+            checksum.accept(p.getPeriod(), LongCentsScheduleEngine.toCents(p.getPrincipalPortion()),
+                            LongCentsScheduleEngine.toCents(p.getInterestPortion()), LongCentsScheduleEngine.toCents(p.getRemainingBalance()));
+        }
+        return checksum.getValue();
+    }
+
+    public static long of(Schedule schedule) {
+        ScheduleChecksum checksum = new ScheduleChecksum();
+        for (int i = 0; i < schedule.size(); i++) {
+            checksum.accept(schedule.getPeriod(i), schedule.getPrincipalCents(i), schedule.getInterestCents(i),
+                            schedule.getRemainingBalanceCents(i));
+        }
+        return checksum.getValue();
+    }
+
+    @Override
+    public void accept(int period, long principalCents, long interestCents, long remainingBalanceCents) {
+        putInt(0, period);
+        putLong(4, principalCents);
+        putLong(12, interestCents);
+        putLong(20, remainingBalanceCents);
+        crc.update(row, 0, row.length);
+        rows++;
+    }
+
+    /** Number of rows fed so far. */
+    public int getRows() { return rows; }
+
+    public long getValue() { return crc.getValue(); }
+
+    private void putInt(int offset, int value) {
+        for (int i = 3; i >= 0; i--) {
+            row[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private void putLong(int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            row[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Turns a {@link Loan} into its amortization schedule. Implementations must agree with each
+ * other penny for penny; they differ only in how they do the arithmetic.
+ */
+public interface ScheduleEngine {
+    /**
+     * Returns an iterator that computes each row only when it is requested. The loan is validated
+     * eagerly, so invalid input fails here rather than on the first {@code next()}.
+     */
+    Iterator<Payment> iterateSchedule(long loanId, Loan loan);
+
+    default List<Payment> generateSchedule(long loanId, Loan loan) {
+        List<Payment> schedule = new ArrayList<>(loan.getTermInMonths());
+        iterateSchedule(loanId, loan).forEachRemaining(schedule::add);
+        return schedule;
+    }
+
+    /** Computes the schedule into compact primitive columns. */
+    default Schedule generateColumnar(long loanId, Loan loan) {
+        Schedule schedule = new Schedule(loanId, loan.getTermInMonths());
+        Iterator<Payment> rows = iterateSchedule(loanId, loan);
+        while (rows.hasNext()) {
+            Payment p = rows.next();
+            schedule.add(p.getPeriod(), p.getPrincipalPortion().unscaledValue().longValueExact(),
+                         p.getInterestPortion().unscaledValue().longValueExact(),
+                         p.getRemainingBalance().unscaledValue().longValueExact());
+        }
+        schedule.trimToSize();
+        return schedule;
+    }
+
+    /** Lazy, sequential stream of the schedule; memory use is constant regardless of the term. */
+    default Stream<Payment> streamSchedule(long loanId, Loan loan) {
+        Spliterator<Payment> spliterator = Spliterators.spliteratorUnknownSize(iterateSchedule(loanId, loan),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /** Resolves {@code "bigdecimal"} or {@code "cents"} to an engine sharing the given calculator. */
+    static ScheduleEngine forName(String name, FinancialCalculator calculator) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "bigdecimal":
+                return new BigDecimalScheduleEngine(calculator);
+            case "cents":
+                return new LongCentsScheduleEngine(calculator);
+            default:
+                throw new IllegalArgumentException("Unknown schedule engine: " + name);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Content address of a schedule: a SHA-256 over the loan terms that determine it. Amounts are
+ * compared by value, so {@code 10000} and {@code 10000.00} hash alike. {@link #ALGORITHM_VERSION}
+ * is part of the hash and must be bumped whenever the engines' output changes for the same terms,
+ * so stored schedules from an older algorithm are never reused.
+ */
+public final class ScheduleKey {
+    static final int ALGORITHM_VERSION = 1;
+
+    private ScheduleKey() {
+    }
+
+    public static String of(Loan loan) {
+        String terms = "v" + ALGORITHM_VERSION
+                + '|' + normalize(loan.getPrincipal())
+                + '|' + normalize(loan.getAnnualInterestRate())
+                + '|' + loan.getTermInMonths()
+                + '|' + loan.getPaymentFrequency().toLowerCase(Locale.ROOT)
+                + '|' + normalize(loan.getExtraPayment());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(terms.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String normalize(BigDecimal amount) {
+        return amount.signum() == 0 ? "0" : amount.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.loanease.calculator;
+
+/** Sink that keeps only what a summary needs, the last period and the interest paid, and no rows. */
+class ScheduleTotals implements PaymentSink {
+    int lastPeriod;
+    long interestCents;
+
+    @Override
+    public void accept(int period, long principalCents, long interestCents, long remainingBalanceCents) {
+        this.lastPeriod = period;
+        this.interestCents += interestCents;
+    }
+}
@@ -0,0 +1,151 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Random access to single periods of a loan's schedule without building the full list.
+ *
+ * <p>The closed-form annuity balance drifts from the stored schedule by a few cents because every
+ * period's interest is rounded to the cent. To reconcile exactly, the view keeps a checkpoint of
+ * the cent balance every {@value #CHECKPOINT_STRIDE} periods and replays at most that many rounded
+ * periods from the nearest one. Checkpoints are filled lazily with allocation-free cent arithmetic,
+ * so the first lookup past period {@code k} walks at most {@code k} cheap steps once, and every
+ * lookup after that replays at most one stride.
+ */
+public class ScheduleView {
+    static final int CHECKPOINT_STRIDE = 32;
+
+    private final long loanId;
+    private final int term;
+    private final long monthlyRate;
+    private final long paymentCents;
+    private final BigDecimal principal;
+    private final List<Payment> materialized;
+    private final long[] checkpoints;
+    private final RowCapture row = new RowCapture();
+    private int checkpointCount;
+    private int payoffPeriod = -1;
+
+    public ScheduleView(long loanId, Loan loan, FinancialCalculator calculator) {
+        this.loanId = loanId;
+        this.term = loan.getTermInMonths();
+        this.principal = loan.getPrincipal();
+        LongCentsScheduleEngine engine = new LongCentsScheduleEngine(calculator);
+        if (LongCentsScheduleEngine.supports(loan)) {
+            this.monthlyRate = LongCentsScheduleEngine.monthlyRateFixed(loan.getAnnualInterestRate());
+            this.paymentCents = engine.paymentCents(loan);
+            this.materialized = null;
+            this.checkpoints = new long[term / CHECKPOINT_STRIDE + 1];
+            this.checkpoints[0] = LongCentsScheduleEngine.toCents(loan.getPrincipal());
+            this.checkpointCount = 1;
+        } else {
+            // Fractional-cent inputs are rare; fall back to the full BigDecimal schedule
+            this.monthlyRate = 0;
+            this.paymentCents = 0;
+            this.materialized = new BigDecimalScheduleEngine(calculator).generateSchedule(loanId, loan);
+            this.checkpoints = null;
+            this.payoffPeriod = materialized.size();
+        }
+    }
+
+    /**
+     * View over rows already computed, such as a schedule with rate changes or prepayments, which
+     * the closed form does not cover. {@code rows} must start at period 1.
+     */
+    public ScheduleView(long loanId, Loan loan, List<Payment> rows) {
+        this.loanId = loanId;
+        this.term = loan.getTermInMonths();
+        this.principal = loan.getPrincipal();
+        this.monthlyRate = 0;
+        this.paymentCents = 0;
+        this.materialized = rows;
+        this.checkpoints = null;
+        this.payoffPeriod = rows.size();
+    }
+
+    /** The row for {@code period}, identical to the corresponding element of the generated schedule. */
+    public synchronized Payment getPayment(int period) {
+        if (period < 1 || period > term) {
+            throw new IllegalArgumentException("Period must be between 1 and " + term);
+        }
+        if (materialized != null) {
+            checkBeforePayoff(period);
+            return materialized.get(period - 1);
+        }
+        int checkpoint = (period - 1) / CHECKPOINT_STRIDE;
+        if (!reachCheckpoint(checkpoint)) {
+            checkBeforePayoff(period);
+        }
+        int from = checkpoint * CHECKPOINT_STRIDE + 1;
+        int last = LongCentsScheduleEngine.amortize(checkpoints[checkpoint], monthlyRate, paymentCents,
+                                                     from, period, term, row);
+        if (last < period) {
+            payoffPeriod = last;
+            checkBeforePayoff(period);
+        }
+        return new Payment(loanId, row.period, BigDecimal.valueOf(row.principalCents, 2),
+                           BigDecimal.valueOf(row.interestCents, 2), BigDecimal.valueOf(row.balanceCents, 2));
+    }
+
+    /** Balance remaining after {@code period}; period 0 is the original principal. */
+    public BigDecimal getRemainingBalance(int period) {
+        if (period == 0) {
+            return principal;
+        }
+        return getPayment(period).getRemainingBalance();
+    }
+
+    /** Number of periods until the loan is paid off, which is shorter than the term with extra payments. */
+    public synchronized int getPeriodCount() {
+        if (payoffPeriod < 0) {
+            int lastCheckpoint = (term - 1) / CHECKPOINT_STRIDE;
+            if (reachCheckpoint(lastCheckpoint)) {
+                payoffPeriod = LongCentsScheduleEngine.amortize(checkpoints[lastCheckpoint], monthlyRate,
+                        paymentCents, lastCheckpoint * CHECKPOINT_STRIDE + 1, term, term, row);
+            }
+        }
+        return payoffPeriod;
+    }
+
+    /** Fills checkpoints up to {@code index}; returns false if the loan is paid off before reaching it. */
+    private boolean reachCheckpoint(int index) {
+        while (checkpointCount <= index) {
+            int from = (checkpointCount - 1) * CHECKPOINT_STRIDE + 1;
+            int to = checkpointCount * CHECKPOINT_STRIDE;
+            int last = LongCentsScheduleEngine.amortize(checkpoints[checkpointCount - 1], monthlyRate,
+                                                         paymentCents, from, to, term, row);
+            if (last < to || row.balanceCents == 0) {
+                payoffPeriod = last;
+                return false;
+            }
+            checkpoints[checkpointCount++] = row.balanceCents;
+        }
+        return true;
+    }
+
+    private void checkBeforePayoff(int period) {
+        if (payoffPeriod >= 0 && period > payoffPeriod) {
+            throw new IllegalArgumentException("Loan is paid off after period " + payoffPeriod);
+        }
+    }
+
+    /** Keeps the most recent row emitted by the engine so lookups do not allocate per period. */
+    private static class RowCapture implements PaymentSink {
+        private int period;
+        private long principalCents;
+        private long interestCents;
+        private long balanceCents;
+
+        @Override
+        public void accept(int period, long principalCents, long interestCents, long remainingBalanceCents) {
+            this.period = period;
+            this.principalCents = principalCents;
+            this.interestCents = interestCents;
+            this.balanceCents = remainingBalanceCents;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.loanease.ingest;
+
+import java.util.List;
+
+/** Outcome of one {@link PortfolioIngestionPipeline} run. */
+public class IngestionReport {
+    private final long rowsRead;
+    private final long loansSaved;
+    private final long rowsRejected;
+    private final long elapsedMillis;
+    private final List<StageStats> stages;
+
+    public IngestionReport(long rowsRead, long loansSaved, long rowsRejected, long elapsedMillis,
+                           List<StageStats> stages) {
+        this.rowsRead = rowsRead;
+        this.loansSaved = loansSaved;
+        this.rowsRejected = rowsRejected;
+        this.elapsedMillis = elapsedMillis;
+        this.stages = List.copyOf(stages);
+    }
+
+    public long getRowsRead() { return rowsRead; }
+    public long getLoansSaved() { return loansSaved; }
+    public long getRowsRejected() { return rowsRejected; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<StageStats> getStages() { return stages; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Read %,d rows: %,d loans saved, %,d rejected in %,d ms%n",
+                                rowsRead, loansSaved, rowsRejected, elapsedMillis));
+        for (StageStats stage : stages) {
+            sb.append(stage).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
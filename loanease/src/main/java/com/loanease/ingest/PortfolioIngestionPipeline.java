@@ -0,0 +1,274 @@
+package com.loanease.ingest;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.service.AmortizationService;
+import com.loanease.service.AmountStorage;
+import com.loanease.service.DatabaseService;
+import com.loanease.util.LoanInputValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a CSV portfolio into the database through four overlapping stages:
+ * parse &rarr; validate &rarr; compute &rarr; write. Stages are connected with bounded
+ * {@link SubmissionPublisher} buffers, so memory stays flat no matter how large the file is.
+ * Rows that fail parsing, validation or schedule computation are written to a rejects file
+ * and the run continues.
+ *
+ * <p>Expected columns: {@code principal,annual_interest_rate,term_in_months,payment_frequency[,extra_payment]}.
+ * A leading header row is skipped.
+ */
+public class PortfolioIngestionPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioIngestionPipeline.class);
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+    public static final int DEFAULT_WRITE_BATCH_SIZE = 100;
+
+    private final DatabaseService dbService;
+    private final AmortizationService service;
+    private final LoanInputValidator validator = new LoanInputValidator();
+    private final int bufferCapacity;
+    private final int writeBatchSize;
+
+    public PortfolioIngestionPipeline(DatabaseService dbService) {
+        this(dbService, DEFAULT_BUFFER_CAPACITY, DEFAULT_WRITE_BATCH_SIZE);
+    }
+
+    public PortfolioIngestionPipeline(DatabaseService dbService, int bufferCapacity, int writeBatchSize) {
+        if (bufferCapacity <= 0 || writeBatchSize <= 0) {
+            throw new IllegalArgumentException("Buffer capacity and write batch size must be positive");
+        }
+        this.dbService = dbService;
+        this.service = new AmortizationService(dbService);
+        this.bufferCapacity = bufferCapacity;
+        this.writeBatchSize = writeBatchSize;
+    }
+
+    public IngestionReport run(Path input, Path rejectsFile) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             RejectsWriter rejects = new RejectsWriter(rejectsFile)) {
+            StageStats parseStats = new StageStats("parse");
+            SubmissionPublisher<Row> source = new SubmissionPublisher<>(executor, bufferCapacity);
+            Stage<Row, Row> validate = new Stage<>("validate", executor, bufferCapacity, row -> validate(row, rejects));
+            Stage<Row, ComputedRow> compute = new Stage<>("compute", executor, bufferCapacity, row -> compute(row, rejects));
+            BatchWriter writer = new BatchWriter();
+            source.subscribe(validate);
+            validate.subscribe(compute);
+            compute.subscribe(writer);
+
+            long rowsRead = 0;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                rowsRead++;
+                long parseStart = System.nanoTime();
+                Row row = parse(lineNumber, line, rejects);
+                parseStats.record(parseStart, System.nanoTime());
+                if (row != null) {
+                    source.submit(row);
+                }
+                if (writer.done.isCompletedExceptionally()) {
+                    break;
+                }
+            }
+            source.close();
+            try {
+                writer.done.join();
+            } catch (CompletionException e) {
+                logger.error("Ingestion of {} failed: {}", input, e.getCause().getMessage());
+                throw new IOException("Ingestion failed: " + e.getCause().getMessage(), e.getCause());
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            IngestionReport report = new IngestionReport(rowsRead, writer.saved.get(), rejects.count.get(),
+                    elapsedMillis, List.of(parseStats, validate.getStats(), compute.getStats(), writer.stats));
+            logger.info("Ingested {}: {} loans saved, {} rows rejected", input, report.getLoansSaved(),
+                        report.getRowsRejected());
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Only the column header is skipped; any other first line is data and is parsed or rejected. */
+    private static boolean isHeader(String line) {
+        int comma = line.indexOf(',');
+        return (comma < 0 ? line : line.substring(0, comma)).strip().equalsIgnoreCase("principal");
+    }
+
+    private Row parse(long lineNumber, String line, RejectsWriter rejects) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 4 || fields.length > 5) {
+            rejects.reject(lineNumber, line, "Expected 4 or 5 columns but found " + fields.length);
+            return null;
+        }
+        try {
+            BigDecimal extraPayment = fields.length == 5 && !fields[4].isBlank()
+                    ? new BigDecimal(fields[4].trim()) : BigDecimal.ZERO;
+            Loan loan = new Loan(new BigDecimal(fields[0].trim()), new BigDecimal(fields[1].trim()),
+                                 Integer.parseInt(fields[2].trim()), fields[3].trim(), extraPayment);
+            return new Row(lineNumber, line, loan);
+        } catch (NumberFormatException e) {
+            rejects.reject(lineNumber, line, "Invalid number: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Row validate(Row row, RejectsWriter rejects) {
+        try {
+            validator.validate(row.loan);
+            return row;
+        } catch (IllegalArgumentException e) {
+            rejects.reject(row.lineNumber, row.line, e.getMessage());
+            return null;
+        }
+    }
+
+    private ComputedRow compute(Row row, RejectsWriter rejects) {
+        try {
+            // Computed from the loan as stored, so a regenerated schedule matches
+            Loan loan = AmountStorage.atStoredScale(row.loan);
+            return new ComputedRow(loan, service.computeSchedule(0, loan));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            rejects.reject(row.lineNumber, row.line, e.getMessage());
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: PortfolioIngestionPipeline <portfolio.csv> [rejects.csv]");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        Path rejects = args.length > 1 ? Path.of(args[1]) : Path.of(args[0] + ".rejects.csv");
+        IngestionReport report = new PortfolioIngestionPipeline(new DatabaseService()).run(input, rejects);
+        System.out.print(report);
+    }
+
+    private static class Row {
+        private final long lineNumber;
+        private final String line;
+        private final Loan loan;
+
+        Row(long lineNumber, String line, Loan loan) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.loan = loan;
+        }
+    }
+
+    private static class ComputedRow {
+        private final Loan loan;
+        private final List<Payment> schedule;
+
+        ComputedRow(Loan loan, List<Payment> schedule) {
+            this.loan = loan;
+            this.schedule = schedule;
+        }
+    }
+
+    /** Terminal stage: saves loans and schedules in one transaction per batch. */
+    private class BatchWriter implements Flow.Subscriber<ComputedRow> {
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final StageStats stats = new StageStats("write");
+        private final AtomicLong saved = new AtomicLong();
+        private final List<Loan> loans = new ArrayList<>();
+        private final List<List<Payment>> schedules = new ArrayList<>();
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ComputedRow item) {
+            loans.add(item.loan);
+            schedules.add(item.schedule);
+            if (loans.size() >= writeBatchSize && !flush()) {
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (flush()) {
+                done.complete(null);
+            }
+        }
+
+        private boolean flush() {
+            if (loans.isEmpty()) {
+                return true;
+            }
+            long start = System.nanoTime();
+            try {
+                dbService.saveLoansWithSchedules(loans, schedules);
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                done.completeExceptionally(e);
+                return false;
+            }
+            stats.record(start, System.nanoTime(), loans.size());
+            saved.addAndGet(loans.size());
+            loans.clear();
+            schedules.clear();
+            return true;
+        }
+    }
+
+    /** Thread-safe sink for rows that could not be ingested. */
+    private static class RejectsWriter implements AutoCloseable {
+        private final BufferedWriter writer;
+        private final AtomicLong count = new AtomicLong();
+
+        RejectsWriter(Path path) throws IOException {
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            writer.write("line,error,row\n");
+        }
+
+        synchronized void reject(long lineNumber, String line, String reason) {
+            count.incrementAndGet();
+            try {
+                writer.write(lineNumber + ",\"" + String.valueOf(reason).replace("\"", "\"\"") + "\"," + line + "\n");
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write rejects file: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+}
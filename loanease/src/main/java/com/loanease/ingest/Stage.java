@@ -0,0 +1,59 @@
+package com.loanease.ingest;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Function;
+
+/**
+ * A pipeline stage that applies a function to every item and publishes the non-null results.
+ * Demand is requested one item at a time and {@link #submit} blocks once the downstream buffer
+ * is full, so a slow consumer throttles every stage upstream of it.
+ */
+class Stage<I, O> extends SubmissionPublisher<O> implements Flow.Processor<I, O> {
+    private final Function<I, O> function;
+    private final StageStats stats;
+    private Flow.Subscription subscription;
+
+    Stage(String name, Executor executor, int bufferCapacity, Function<I, O> function) {
+        super(executor, bufferCapacity);
+        this.function = function;
+        this.stats = new StageStats(name);
+    }
+
+    StageStats getStats() { return stats; }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(I item) {
+        O result;
+        long start = System.nanoTime();
+        try {
+            result = function.apply(item);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            closeExceptionally(e);
+            return;
+        }
+        stats.record(start, System.nanoTime());
+        if (result != null) {
+            submit(result);
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.loanease.ingest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Throughput counters for one pipeline stage. */
+public class StageStats {
+    private final String name;
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong firstNanos = new AtomicLong();
+    private final AtomicLong lastNanos = new AtomicLong();
+
+    public StageStats(String name) {
+        this.name = name;
+    }
+
+    void record(long startNanos, long endNanos) {
+        record(startNanos, endNanos, 1);
+    }
+
+    void record(long startNanos, long endNanos, int count) {
+        items.addAndGet(count);
+        busyNanos.addAndGet(endNanos - startNanos);
+        firstNanos.compareAndSet(0, startNanos);
+        lastNanos.set(endNanos);
+    }
+
+    public String getName() { return name; }
+    public long getItems() { return items.get(); }
+    public long getBusyMillis() { return busyNanos.get() / 1_000_000; }
+
+    /** Items per second measured from the first item entering the stage to the last one leaving it. */
+    public double getItemsPerSecond() {
+        long elapsed = lastNanos.get() - firstNanos.get();
+        return elapsed > 0 ? items.get() / (elapsed / 1e9) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s %,10d items  %,12.1f items/sec  busy %,d ms",
+                             name, getItems(), getItemsPerSecond(), getBusyMillis());
+    }
+}
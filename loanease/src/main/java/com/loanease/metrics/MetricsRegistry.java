@@ -0,0 +1,66 @@
+package com.loanease.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named {@link OperationMetrics}, created on first use. The services record into
+ * {@link #global()}; read it programmatically through {@link #get} and {@link #getOperations},
+ * or print {@link #report()} at the end of a run.
+ */
+public final class MetricsRegistry {
+    public static final String GENERATE_SCHEDULE = "generateSchedule";
+    public static final String SAVE_SCHEDULE = "saveSchedule";
+    public static final String GET_LOAN = "getLoanById";
+    public static final String EXPORT_CSV = "exportToCSV";
+    public static final String EXPORT_PDF = "exportToPDF";
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /** Starts timing {@code operation} in the global registry. */
+    public static OperationSample start(String operation) {
+        return GLOBAL.begin(operation);
+    }
+
+    public OperationSample begin(String operation) {
+        return new OperationSample(get(operation));
+    }
+
+    public OperationMetrics get(String operation) {
+        return operations.computeIfAbsent(operation, OperationMetrics::new);
+    }
+
+    /** Every operation recorded so far, by name. */
+    public Map<String, OperationMetrics> getOperations() {
+        return new TreeMap<>(operations);
+    }
+
+    /** Clears the figures, keeping the operations themselves so existing references stay valid. */
+    public void reset() {
+        operations.values().forEach(OperationMetrics::reset);
+    }
+
+    /** One line per operation that has been called. */
+    public String report() {
+        StringBuilder report = new StringBuilder("LoanEase metrics\n");
+        for (OperationMetrics metrics : getOperations().values()) {
+            if (metrics.getCount() > 0) {
+                report.append(metrics).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    public void printReport(PrintStream out) {
+        out.print(report());
+        out.flush();
+    }
+}
@@ -0,0 +1,29 @@
+package com.loanease.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one instrumented operation, so production runs can be profiled with
+ * {@code -XX:StartFlightRecording} and no agent. {@link OperationSample} only emits it once Flight
+ * Recorder has been started, from the command line or later with {@code jcmd JFR.start}.
+ */
+@Name("com.loanease.Operation")
+@Label("LoanEase Operation")
+@Category("LoanEase")
+@Description("A schedule, persistence, lookup or export call and the rows it handled")
+@StackTrace(false)
+final class OperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+}
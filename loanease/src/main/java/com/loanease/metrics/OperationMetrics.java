@@ -0,0 +1,71 @@
+package com.loanease.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Call count, errors, rows handled and latency distribution of one operation. */
+public final class OperationMetrics {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, long rowCount, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        rows.add(rowCount);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        latency.record(nanos);
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return calls.sum(); }
+    public long getErrorCount() { return errors.sum(); }
+    public long getRowCount() { return rows.sum(); }
+    public long getTotalNanos() { return totalNanos.sum(); }
+    public long getMaxNanos() { return maxNanos.get(); }
+
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotalNanos() / count;
+    }
+
+    /** Latency at {@code quantile} (e.g. 0.99), within 12.5%; 0 before the first call. */
+    public long getPercentileNanos(double quantile) {
+        return latency.percentile(quantile);
+    }
+
+    /** Rows handled per second of time spent inside the operation. */
+    public double getRowsPerSecond() {
+        long nanos = getTotalNanos();
+        return nanos == 0 ? 0 : getRowCount() / (nanos / 1e9);
+    }
+
+    void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s %,9d calls %,6d errors %,12d rows  mean %,9.3f ms  p50 %,9.3f ms  p99 %,9.3f ms" +
+                             "  max %,9.3f ms  %,12.0f rows/s",
+                             name, getCount(), getErrorCount(), getRowCount(), getMeanNanos() / 1e6,
+                             getPercentileNanos(0.50) / 1e6, getPercentileNanos(0.99) / 1e6, getMaxNanos() / 1e6,
+                             getRowsPerSecond());
+    }
+}
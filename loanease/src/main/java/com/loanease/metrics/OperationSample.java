@@ -0,0 +1,53 @@
+package com.loanease.metrics;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * One timed call, started by {@link MetricsRegistry#start}. Call {@link #complete} when the
+ * operation succeeds; a sample closed without it is counted as an error.
+ *
+ * <pre>
+ * try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.SAVE_SCHEDULE)) {
+ *     ...
+ *     sample.complete(rows);
+ * }
+ * </pre>
+ */
+public final class OperationSample implements AutoCloseable {
+    private final OperationMetrics metrics;
+    // Only created once Flight Recorder is running: the first event class costs about half a
+    // second to set up, which would otherwise land on every short CLI run
+    private final OperationEvent event = FlightRecorder.isInitialized() ? new OperationEvent() : null;
+    private final long startNanos;
+    private long rows = -1;
+
+    OperationSample(OperationMetrics metrics) {
+        this.metrics = metrics;
+        if (event != null) {
+            event.begin();
+        }
+        this.startNanos = System.nanoTime();
+    }
+
+    /** Marks the operation successful; {@code rows} is the number of payments or loans it handled. */
+    public void complete(long rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public void close() {
+        long nanos = System.nanoTime() - startNanos;
+        boolean failed = rows < 0;
+        metrics.record(nanos, failed ? 0 : rows, failed);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = metrics.getName();
+            event.rows = Math.max(0, rows);
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.loanease.model;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+/**
+ * Something that happens to a loan part-way through its term and changes the schedule from that
+ * period on. Events are stored in {@code loan_events}; at most one of each type per period.
+ */
+public class LoanEvent {
+    /** Orders events by period, then by type, which is the order they are applied in. */
+    public static final Comparator<LoanEvent> BY_PERIOD =
+            Comparator.comparingInt(LoanEvent::getPeriod).thenComparing(LoanEvent::getType);
+
+    public enum Type {
+        /** The annual rate changes from this period on and the payment is recomputed over the remaining term. */
+        RATE_CHANGE,
+        /**
+         * A lump sum paid on top of this period's payment and applied entirely to principal. The
+         * payment stays the same, so the loan is paid off sooner.
+         */
+        PREPAYMENT
+    }
+
+    private final Type type;
+    private final int period;
+    private final BigDecimal annualInterestRate;
+    private final BigDecimal amount;
+
+    private LoanEvent(Type type, int period, BigDecimal annualInterestRate, BigDecimal amount) {
+        this.type = type;
+        this.period = period;
+        this.annualInterestRate = annualInterestRate;
+        this.amount = amount;
+    }
+
+    public static LoanEvent rateChange(int period, BigDecimal annualInterestRate) {
+        return new LoanEvent(Type.RATE_CHANGE, period, annualInterestRate, null);
+    }
+
+    public static LoanEvent prepayment(int period, BigDecimal amount) {
+        return new LoanEvent(Type.PREPAYMENT, period, null, amount);
+    }
+
+    public Type getType() { return type; }
+    public int getPeriod() { return period; }
+
+    /** New annual rate for a {@link Type#RATE_CHANGE}. */
+    public BigDecimal getAnnualInterestRate() { return annualInterestRate; }
+
+    /** Lump sum paid for a {@link Type#PREPAYMENT}. */
+    public BigDecimal getAmount() { return amount; }
+}
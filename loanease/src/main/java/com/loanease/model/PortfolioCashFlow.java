@@ -0,0 +1,67 @@
+package com.loanease.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Projected cash flows of a book of loans, summed per period: principal and interest received,
+ * the balance still outstanding after the period, and how many loans made a payment in it.
+ * Periods run from 1 to {@link #getPeriodCount()}; amounts are held in cents.
+ */
+public class PortfolioCashFlow {
+    private final int loanCount;
+    private final long[] principalCents;
+    private final long[] interestCents;
+    private final long[] balanceCents;
+    private final int[] activeLoans;
+
+    /** Index {@code i} of every array holds period {@code i + 1}. */
+    public PortfolioCashFlow(int loanCount, long[] principalCents, long[] interestCents, long[] balanceCents,
+                             int[] activeLoans) {
+        int periods = principalCents.length;
+        if (interestCents.length != periods || balanceCents.length != periods || activeLoans.length != periods) {
+            throw new IllegalArgumentException("Every column needs one value per period");
+        }
+        this.loanCount = loanCount;
+        this.principalCents = principalCents;
+        this.interestCents = interestCents;
+        this.balanceCents = balanceCents;
+        this.activeLoans = activeLoans;
+    }
+
+    public int getLoanCount() { return loanCount; }
+
+    /** Last period in which any loan makes a payment. */
+    public int getPeriodCount() { return principalCents.length; }
+
+    public long getPrincipalCents(int period) { return principalCents[index(period)]; }
+    public long getInterestCents(int period) { return interestCents[index(period)]; }
+    public long getOutstandingBalanceCents(int period) { return balanceCents[index(period)]; }
+    public int getActiveLoans(int period) { return activeLoans[index(period)]; }
+
+    public BigDecimal getPrincipal(int period) { return BigDecimal.valueOf(getPrincipalCents(period), 2); }
+    public BigDecimal getInterest(int period) { return BigDecimal.valueOf(getInterestCents(period), 2); }
+    public BigDecimal getOutstandingBalance(int period) { return BigDecimal.valueOf(getOutstandingBalanceCents(period), 2); }
+
+    public long getTotalPrincipalCents() {
+        long total = 0;
+        for (long cents : principalCents) {
+            total += cents;
+        }
+        return total;
+    }
+
+    public long getTotalInterestCents() {
+        long total = 0;
+        for (long cents : interestCents) {
+            total += cents;
+        }
+        return total;
+    }
+
+    private int index(int period) {
+        if (period < 1 || period > principalCents.length) {
+            throw new IndexOutOfBoundsException("Period " + period + " outside 1.." + principalCents.length);
+        }
+        return period - 1;
+    }
+}
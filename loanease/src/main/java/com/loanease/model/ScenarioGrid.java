@@ -0,0 +1,62 @@
+package com.loanease.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Result matrix of a scenario sweep: one cell per (rate, extra payment) pair, with rates as rows
+ * and extra payments as columns. Cells are held in primitive arrays; {@link #getSummary} builds a
+ * {@link ScenarioSummary} on request.
+ */
+public class ScenarioGrid {
+    private final List<BigDecimal> rates;
+    private final List<BigDecimal> extraPayments;
+    private final ScenarioSummary base;
+    private final int[] payoffPeriods;
+    private final long[] totalInterestCents;
+
+    public ScenarioGrid(List<BigDecimal> rates, List<BigDecimal> extraPayments, ScenarioSummary base,
+                        int[] payoffPeriods, long[] totalInterestCents) {
+        if (payoffPeriods.length != rates.size() * extraPayments.size()
+                || totalInterestCents.length != payoffPeriods.length) {
+            throw new IllegalArgumentException("Grid needs one cell per rate and extra payment");
+        }
+        this.rates = List.copyOf(rates);
+        this.extraPayments = List.copyOf(extraPayments);
+        this.base = base;
+        this.payoffPeriods = payoffPeriods;
+        this.totalInterestCents = totalInterestCents;
+    }
+
+    public List<BigDecimal> getRates() { return rates; }
+    public List<BigDecimal> getExtraPayments() { return extraPayments; }
+
+    /** The loan as stored, which the interest savings are measured against. */
+    public ScenarioSummary getBase() { return base; }
+
+    public int getPayoffPeriod(int rateIndex, int extraIndex) {
+        return payoffPeriods[cell(rateIndex, extraIndex)];
+    }
+
+    public long getTotalInterestCents(int rateIndex, int extraIndex) {
+        return totalInterestCents[cell(rateIndex, extraIndex)];
+    }
+
+    public long getInterestSavedCents(int rateIndex, int extraIndex) {
+        return base.getTotalInterestCents() - getTotalInterestCents(rateIndex, extraIndex);
+    }
+
+    public ScenarioSummary getSummary(int rateIndex, int extraIndex) {
+        int cell = cell(rateIndex, extraIndex);
+        return new ScenarioSummary(rates.get(rateIndex), extraPayments.get(extraIndex), payoffPeriods[cell],
+                                   totalInterestCents[cell], base.getTotalInterestCents() - totalInterestCents[cell]);
+    }
+
+    private int cell(int rateIndex, int extraIndex) {
+        if (rateIndex < 0 || rateIndex >= rates.size() || extraIndex < 0 || extraIndex >= extraPayments.size()) {
+            throw new IndexOutOfBoundsException("Cell (" + rateIndex + ", " + extraIndex + ") outside "
+                    + rates.size() + "x" + extraPayments.size() + " grid");
+        }
+        return rateIndex * extraPayments.size() + extraIndex;
+    }
+}
@@ -0,0 +1,31 @@
+package com.loanease.model;
+
+import java.math.BigDecimal;
+
+/** Outcome of running a loan under one (rate, extra payment) combination. */
+public class ScenarioSummary {
+    private final BigDecimal annualInterestRate;
+    private final BigDecimal extraPayment;
+    private final int payoffPeriod;
+    private final long totalInterestCents;
+    private final long interestSavedCents;
+
+    public ScenarioSummary(BigDecimal annualInterestRate, BigDecimal extraPayment, int payoffPeriod,
+                           long totalInterestCents, long interestSavedCents) {
+        this.annualInterestRate = annualInterestRate;
+        this.extraPayment = extraPayment;
+        this.payoffPeriod = payoffPeriod;
+        this.totalInterestCents = totalInterestCents;
+        this.interestSavedCents = interestSavedCents;
+    }
+
+    public BigDecimal getAnnualInterestRate() { return annualInterestRate; }
+    public BigDecimal getExtraPayment() { return extraPayment; }
+    public int getPayoffPeriod() { return payoffPeriod; }
+    public long getTotalInterestCents() { return totalInterestCents; }
+    public long getInterestSavedCents() { return interestSavedCents; }
+    public BigDecimal getTotalInterest() { return BigDecimal.valueOf(totalInterestCents, 2); }
+
+    /** Interest saved compared with the base loan; negative when the scenario costs more. */
+    public BigDecimal getInterestSaved() { return BigDecimal.valueOf(interestSavedCents, 2); }
+}
@@ -0,0 +1,120 @@
+package com.loanease.model;
+
+import com.loanease.calculator.LongCentsScheduleEngine;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Column-oriented amortization schedule. Rows are kept in primitive arrays with amounts in whole
+ * cents, about 28 bytes per row instead of a {@link Payment} with three BigDecimals. Use
+ * {@link #asList()} where code expects a {@code List<Payment>}.
+ */
+public class Schedule {
+    private final long loanId;
+    private int size;
+    private int[] periods;
+    private long[] principalCents;
+    private long[] interestCents;
+    private long[] balanceCents;
+
+    public Schedule(long loanId, int initialCapacity) {
+        this.loanId = loanId;
+        int capacity = Math.max(1, initialCapacity);
+        this.periods = new int[capacity];
+        this.principalCents = new long[capacity];
+        this.interestCents = new long[capacity];
+        this.balanceCents = new long[capacity];
+    }
+
+    public static Schedule fromPayments(long loanId, List<Payment> payments) {
+        Schedule schedule = new Schedule(loanId, payments.size());
+        for (Payment p : payments) {
+            schedule.add(p.getPeriod(), LongCentsScheduleEngine.toCents(p.getPrincipalPortion()),
+                         LongCentsScheduleEngine.toCents(p.getInterestPortion()), LongCentsScheduleEngine.toCents(p.getRemainingBalance()));
+        }
+        return schedule;
+    }
+
+    public void add(int period, long principal, long interest, long remainingBalance) {
+        if (size == periods.length) {
+            int capacity = size * 2;
+            periods = Arrays.copyOf(periods, capacity);
+            principalCents = Arrays.copyOf(principalCents, capacity);
+            interestCents = Arrays.copyOf(interestCents, capacity);
+            balanceCents = Arrays.copyOf(balanceCents, capacity);
+        }
+        periods[size] = period;
+        principalCents[size] = principal;
+        interestCents[size] = interest;
+        balanceCents[size] = remainingBalance;
+        size++;
+    }
+
+    public long getLoanId() { return loanId; }
+    public int size() { return size; }
+    public int getPeriod(int index) { return periods[checkIndex(index)]; }
+    public long getPrincipalCents(int index) { return principalCents[checkIndex(index)]; }
+    public long getInterestCents(int index) { return interestCents[checkIndex(index)]; }
+    public long getRemainingBalanceCents(int index) { return balanceCents[checkIndex(index)]; }
+
+    public long getTotalPrincipalCents() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += principalCents[i];
+        }
+        return total;
+    }
+
+    public long getTotalInterestCents() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += interestCents[i];
+        }
+        return total;
+    }
+
+    public Payment getPayment(int index) {
+        checkIndex(index);
+        return new Payment(loanId, periods[index], BigDecimal.valueOf(principalCents[index], 2),
+                           BigDecimal.valueOf(interestCents[index], 2), BigDecimal.valueOf(balanceCents[index], 2));
+    }
+
+    /** Read-only {@code List<Payment>} view; each element is created on access and not retained. */
+    public List<Payment> asList() {
+        return new PaymentListView();
+    }
+
+    /** Releases unused capacity once the schedule is complete. */
+    public void trimToSize() {
+        if (size < periods.length) {
+            int capacity = Math.max(1, size);
+            periods = Arrays.copyOf(periods, capacity);
+            principalCents = Arrays.copyOf(principalCents, capacity);
+            interestCents = Arrays.copyOf(interestCents, capacity);
+            balanceCents = Arrays.copyOf(balanceCents, capacity);
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private class PaymentListView extends AbstractList<Payment> implements RandomAccess {
+        @Override
+        public Payment get(int index) {
+            return getPayment(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.loanease.server;
+
+import com.loanease.metrics.MetricsRegistry;
+import com.loanease.metrics.OperationSample;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.service.AmortizationService;
+import com.loanease.util.CsvScheduleWriter;
+import com.loanease.util.LoanInputValidator;
+import com.loanease.util.PdfScheduleWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * HTTP front end on the JDK's built-in server, one virtual thread per request. Every request goes
+ * through the same {@link AmortizationService}, so they share its calculator, loan cache and
+ * connection pool. Parameters are read from the query string or a form-encoded body.
+ *
+ * <pre>
+ * POST /loans                      principal, rate, term, frequency, extraPayment  -> {"id": ...}
+ * GET  /loans/{id}                 the stored loan as JSON
+ * GET  /loans/{id}/schedule        format=json|csv, computed with the loan's rate changes and prepayments
+ * POST /loans/{id}/scenarios       extraPayment, rate; stored as a new loan like the CLI's scenarios
+ * GET  /loans/{id}/export          format=csv|pdf, as an attachment
+ * </pre>
+ *
+ * Schedules and scenarios are sent with chunked encoding as they are produced. Exports are built in
+ * full first, so a failure part-way through is an error response rather than a truncated file.
+ */
+public class LoanEaseServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LoanEaseServer.class);
+    private static final int DEFAULT_PORT = 8080;
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+
+    private final AmortizationService service;
+    private final LoanInputValidator validator = new LoanInputValidator();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Binds to {@code port}; 0 picks a free port, see {@link #getPort()}. */
+    public LoanEaseServer(AmortizationService service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/loans", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("LoanEase server listening on port {}", getPort());
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    /** Stops accepting requests, waits up to a second for those in flight, then stops their threads. */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+        logger.info("LoanEase server stopped");
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("loanease.server.port", DEFAULT_PORT);
+        LoanEaseServer server = new LoanEaseServer(new AmortizationService(), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            String rawPath = exchange.getRequestURI().getPath();
+            String[] path = rawPath.split("/");
+            String method = exchange.getRequestMethod();
+            // The context matches any path starting with "/loans", so "/loansX" must be turned away here;
+            // past that check path[0] is empty and path[1] is "loans"
+            if (!rawPath.equals("/loans") && !rawPath.startsWith("/loans/")) {
+                sendError(exchange, 404, "No such resource: " + method + " " + rawPath);
+            } else if (path.length == 2 && method.equals("POST")) {
+                createLoan(exchange);
+            } else if (path.length == 3 && method.equals("GET")) {
+                getLoan(exchange, loanId(path[2]));
+            } else if (path.length == 4 && path[3].equals("schedule") && method.equals("GET")) {
+                streamSchedule(exchange, loanId(path[2]));
+            } else if (path.length == 4 && path[3].equals("scenarios") && method.equals("POST")) {
+                runScenario(exchange, loanId(path[2]));
+            } else if (path.length == 4 && path[3].equals("export") && method.equals("GET")) {
+                export(exchange, loanId(path[2]));
+            } else {
+                sendError(exchange, 404, "No such resource: " + method + " " + rawPath);
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (LoanNotFoundException e) {
+            sendError(exchange, 404, "Loan not found");
+        } catch (IOException e) {
+            // Usually the client went away mid-response
+            logger.warn("Failed to send response: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Failed to handle {}: {}", exchange.getRequestURI(), e.getMessage());
+            sendError(exchange, 500, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void createLoan(HttpExchange exchange) throws IOException {
+        Map<String, String> params = params(exchange);
+        Loan loan = new Loan(decimal(params, "principal"), decimal(params, "rate"),
+                             Integer.parseInt(required(params, "term")),
+                             params.getOrDefault("frequency", "Monthly"),
+                             decimal(params, "extraPayment", BigDecimal.ZERO));
+        validator.validate(loan);
+        long loanId = service.saveLoan(loan);
+        sendJson(exchange, 201, "{\"id\":" + loanId + "}");
+    }
+
+    private void getLoan(HttpExchange exchange, long loanId) throws IOException {
+        sendJson(exchange, 200, loanJson(loanId, requireLoan(loanId)));
+    }
+
+    private void streamSchedule(HttpExchange exchange, long loanId) throws IOException {
+        requireLoan(loanId);
+        String format = params(exchange).getOrDefault("format", "json");
+        try (Stream<Payment> schedule = service.streamSchedule(loanId)) {
+            switch (format) {
+                case "json":
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, 0);
+                    try (Writer out = writer(exchange)) {
+                        out.write("{\"loanId\":" + loanId + ",\"payments\":");
+                        writePayments(out, schedule.iterator());
+                        out.write("}");
+                    }
+                    break;
+                case "csv":
+                    exchange.getResponseHeaders().set("Content-Type", "text/csv");
+                    exchange.sendResponseHeaders(200, 0);
+                    new CsvScheduleWriter().write(schedule.iterator(), exchange.getResponseBody());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+        }
+    }
+
+    private void runScenario(HttpExchange exchange, long loanId) throws IOException {
+        requireLoan(loanId);
+        Map<String, String> params = params(exchange);
+        AmortizationService.LoanSchedulePair scenario = service.runScenario(
+                loanId, decimal(params, "extraPayment", null), decimal(params, "rate", null));
+        List<Payment> schedule = scenario.getSchedule();
+        long scenarioId = scenario.getLoan().getId();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(201, 0);
+        try (Writer out = writer(exchange)) {
+            out.write("{\"loan\":" + loanJson(scenarioId, scenario.getLoan()) + ",\"payments\":");
+            writePayments(out, schedule.iterator());
+            out.write("}");
+        }
+    }
+
+    private void export(HttpExchange exchange, long loanId) throws IOException {
+        Loan loan = requireLoan(loanId);
+        String format = params(exchange).getOrDefault("format", "csv");
+        if (!format.equals("csv") && !format.equals("pdf")) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        // Built before the headers go out, so a failure is reported as an error and not a truncated file
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String operation = format.equals("csv") ? MetricsRegistry.EXPORT_CSV : MetricsRegistry.EXPORT_PDF;
+        try (OperationSample sample = MetricsRegistry.start(operation);
+             Stream<Payment> schedule = service.streamSchedule(loanId)) {
+            long rows;
+            if (format.equals("csv")) {
+                rows = new CsvScheduleWriter().write(schedule.iterator(), body);
+            } else {
+                try (PdfScheduleWriter pdf = new PdfScheduleWriter(body)) {
+                    rows = pdf.addLoan(loan, schedule.iterator());
+                }
+            }
+            sample.complete(rows);
+        }
+        exchange.getResponseHeaders().set("Content-Type", format.equals("csv") ? "text/csv" : "application/pdf");
+        exchange.getResponseHeaders().set("Content-Disposition",
+                                          "attachment; filename=\"schedule_" + loanId + "." + format + "\"");
+        exchange.sendResponseHeaders(200, body.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            body.writeTo(out);
+        }
+    }
+
+    private Loan requireLoan(long loanId) {
+        Loan loan = service.getLoan(loanId);
+        if (loan == null) {
+            throw new LoanNotFoundException();
+        }
+        return loan;
+    }
+
+    private static void writePayments(Writer out, Iterator<Payment> payments) throws IOException {
+        out.write('[');
+        boolean first = true;
+        while (payments.hasNext()) {
+            Payment p = payments.next();
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            out.write("{\"period\":");
+            out.write(Integer.toString(p.getPeriod()));
+            out.write(",\"principal\":");
+            out.write(p.getPrincipalPortion().toPlainString());
+            out.write(",\"interest\":");
+            out.write(p.getInterestPortion().toPlainString());
+            out.write(",\"totalPayment\":");
+            out.write(p.getPrincipalPortion().add(p.getInterestPortion()).toPlainString());
+            out.write(",\"balance\":");
+            out.write(p.getRemainingBalance().toPlainString());
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private static String loanJson(long loanId, Loan loan) {
+        return "{\"id\":" + loanId +
+               ",\"principal\":" + loan.getPrincipal().toPlainString() +
+               ",\"rate\":" + loan.getAnnualInterestRate().toPlainString() +
+               ",\"term\":" + loan.getTermInMonths() +
+               ",\"frequency\":" + quote(loan.getPaymentFrequency()) +
+               ",\"extraPayment\":" + loan.getExtraPayment().toPlainString() + "}";
+    }
+
+    private static String quote(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static Writer writer(HttpExchange exchange) {
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                                  WRITE_BUFFER_SIZE);
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) {
+            // Headers are already out; all that is left is to cut the response short
+            return;
+        }
+        try {
+            sendJson(exchange, status, "{\"error\":" + quote(message != null ? message : "Internal error") + "}");
+        } catch (IOException e) {
+            logger.warn("Failed to send error response: {}", e.getMessage());
+        }
+    }
+
+    /** Query parameters, plus form parameters for requests with a body. */
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseInto(params, exchange.getRequestURI().getRawQuery());
+        try (InputStream body = exchange.getRequestBody()) {
+            parseInto(params, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void parseInto(Map<String, String> params, String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return;
+        }
+        for (String pair : encoded.trim().split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(Map<String, String> params, String name) {
+        return new BigDecimal(required(params, name));
+    }
+
+    /** {@code defaultValue} when the parameter is absent or blank. */
+    private static BigDecimal decimal(Map<String, String> params, String name, BigDecimal defaultValue) {
+        String value = params.get(name);
+        return value == null || value.isBlank() ? defaultValue : new BigDecimal(value);
+    }
+
+    private static long loanId(String segment) {
+        try {
+            return Long.parseLong(segment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid loan ID: " + segment);
+        }
+    }
+
+    /** Maps to 404 rather than the 400 other {@link IllegalArgumentException}s get. */
+    private static final class LoanNotFoundException extends RuntimeException {
+    }
+}
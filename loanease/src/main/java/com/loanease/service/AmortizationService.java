@@ -1,19 +1,64 @@
 package com.loanease.service;
 
 import com.loanease.model.*;
+import com.loanease.calculator.CachingFinancialCalculator;
+import com.loanease.calculator.EventScheduleEngine;
 import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.GoalSeekSolver;
+import com.loanease.calculator.PortfolioAggregator;
+import com.loanease.calculator.ScenarioSweep;
+import com.loanease.calculator.ScheduleEngine;
+import com.loanease.calculator.ScheduleKey;
+import com.loanease.calculator.ScheduleView;
+import com.loanease.metrics.MetricsRegistry;
+import com.loanease.metrics.OperationSample;
+import com.loanease.util.CacheStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class AmortizationService {
     private static final Logger logger = LoggerFactory.getLogger(AmortizationService.class);
-    private final FinancialCalculator calculator = new FinancialCalculator();
-    private final DatabaseService dbService = new DatabaseService();
+    private static final int PMT_CACHE_SIZE = Integer.getInteger("loanease.pmtCache.size", 0);
+    private final FinancialCalculator calculator = PMT_CACHE_SIZE > 0
+            ? new CachingFinancialCalculator(PMT_CACHE_SIZE) : new FinancialCalculator();
+    private final DatabaseService dbService;
+    private final ScheduleEngine engine;
+    private final EventScheduleEngine eventEngine = new EventScheduleEngine(calculator);
+
+    public AmortizationService() {
+        this(new DatabaseService());
+    }
+
+    public AmortizationService(DatabaseService dbService) {
+        this(dbService, null);
+    }
+
+    /**
+     * @param engine schedule engine to use; {@code null} selects the one named by the
+     *               {@code loanease.engine} system property ({@code bigdecimal} by default)
+     */
+    public AmortizationService(DatabaseService dbService, ScheduleEngine engine) {
+        this.dbService = dbService;
+        this.engine = engine != null ? engine
+                : ScheduleEngine.forName(System.getProperty("loanease.engine", "bigdecimal"), calculator);
+    }
+
+    public ScheduleEngine getEngine() { return engine; }
+
+    /** Hit rate of the loan cache that spares schedule and scenario calls a query per lookup. */
+    public CacheStats getLoanCacheStats() {
+        return dbService.getLoanRepository().getCacheStats();
+    }
+
+    /** The stored loan, or {@code null} if there is none. */
+    public Loan getLoan(long loanId) {
+        return dbService.getLoan(loanId);
+    }
 
     public long saveLoan(Loan loan) {
         logger.info("Saving loan: principal={}, rate={}, term={}", 
@@ -23,45 +68,147 @@ public class AmortizationService {
 
     public List<Payment> generateSchedule(long loanId) {
         logger.info("Generating schedule for loanId={}", loanId);
-        Loan loan = getLoanById(loanId);
-        if (loan == null) {
-            logger.error("Loan not found for loanId={}", loanId);
-            throw new IllegalArgumentException("Loan not found");
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.GENERATE_SCHEDULE)) {
+            Loan loan = requireLoan(loanId);
+            List<LoanEvent> events = dbService.getLoanEvents(loanId);
+            List<Payment> schedule;
+            if (!events.isEmpty()) {
+                schedule = generateWithEvents(loanId, loan, events);
+            } else {
+                schedule = computeSchedule(loanId, loan);
+                logger.info("Schedule generated with {} payments", schedule.size());
+                dbService.saveSharedSchedule(loanId, ScheduleKey.of(loan), schedule);
+            }
+            sample.complete(schedule.size());
+            return schedule;
+        }
+    }
+
+    /**
+     * Changes a stored loan's rate from {@code period} on, as on a rate reset, and recomputes the
+     * payment over the periods remaining. Only that part of the schedule is redone: the balance
+     * before {@code period} is read from the stored schedule, rate changes already recorded for
+     * later periods still apply, and only the rows from {@code period} on are rewritten.
+     * Returns those rows.
+     *
+     * @throws IllegalArgumentException if the stored schedule has no balance left before {@code period}
+     */
+    public List<Payment> applyRateChange(long loanId, int period, BigDecimal newRate) {
+        logger.info("Applying rate change for loanId={}: {} from period {}", loanId, newRate, period);
+        Loan loan = requireLoan(loanId);
+        if (period < 1 || period > loan.getTermInMonths()) {
+            throw new IllegalArgumentException("Period must be between 1 and the loan term");
+        }
+        if (newRate == null || newRate.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Interest rate cannot be negative");
         }
-        List<Payment> schedule = new ArrayList<>();
-        BigDecimal principal = loan.getPrincipal();
-        BigDecimal monthlyRate = loan.getAnnualInterestRate().divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
-        int periods = loan.getTermInMonths();
-        BigDecimal payment = calculator.computePMT(principal, loan.getAnnualInterestRate(), periods, loan.getPaymentFrequency());
-        payment = payment.add(loan.getExtraPayment());
-
-        BigDecimal remainingBalance = principal;
-        for (int period = 1; period <= periods && remainingBalance.compareTo(BigDecimal.ZERO) > 0; period++) {
-            BigDecimal interest = calculator.interestPortion(remainingBalance, monthlyRate);
-            BigDecimal principalPortion = calculator.principalPortion(payment, interest);
-            if (period == periods || principalPortion.compareTo(remainingBalance) > 0) {
-                principalPortion = remainingBalance;
-                payment = principalPortion.add(interest);
+        // Computed at the precision the rate is stored with, so a later full regeneration agrees
+        return applyEvent(loanId, loan, LoanEvent.rateChange(period, newRate.setScale(4, RoundingMode.HALF_UP)));
+    }
+
+    /**
+     * Records a lump-sum prepayment made with the regular payment of {@code period}. The payment
+     * after it stays the same, so the loan pays off sooner. As with {@link #applyRateChange}, only
+     * the rows from {@code period} on are recomputed and rewritten; a second prepayment in the same
+     * period replaces the first. Returns those rows.
+     *
+     * @throws IllegalArgumentException if the stored schedule has no balance left before {@code period}
+     */
+    public List<Payment> applyPrepayment(long loanId, int period, BigDecimal amount) {
+        logger.info("Applying prepayment for loanId={}: {} in period {}", loanId, amount, period);
+        Loan loan = requireLoan(loanId);
+        if (period < 1 || period > loan.getTermInMonths()) {
+            throw new IllegalArgumentException("Period must be between 1 and the loan term");
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Prepayment must be positive");
+        }
+        return applyEvent(loanId, loan, LoanEvent.prepayment(period, amount.setScale(2, RoundingMode.HALF_UP)));
+    }
+
+    /** Computes the schedule for a loan in memory without reading or writing the database. */
+    public List<Payment> computeSchedule(long loanId, Loan loan) {
+        return engine.generateSchedule(loanId, loan);
+    }
+
+    /** Computes a schedule in memory in the compact columnar form used for portfolio analytics. */
+    public Schedule computeColumnarSchedule(long loanId, Loan loan) {
+        return engine.generateColumnar(loanId, loan);
+    }
+
+    /**
+     * Lazily computes a stored loan's schedule; nothing is persisted and rows are built on demand.
+     * A loan with rate changes or prepayments is computed in memory with them applied instead.
+     */
+    public Stream<Payment> streamSchedule(long loanId) {
+        Loan loan = requireLoan(loanId);
+        List<LoanEvent> events = dbService.getLoanEvents(loanId);
+        if (!events.isEmpty()) {
+            return computeWithEvents(loanId, loan, events).asList().stream();
+        }
+        return engine.streamSchedule(loanId, loan);
+    }
+
+    /**
+     * Same result as {@link #generateSchedule(long)} but rows flow straight from the engine into the
+     * database, so memory use does not grow with the term. Returns the number of payments in the schedule.
+     */
+    public int generateScheduleStreaming(long loanId) {
+        logger.info("Streaming schedule for loanId={}", loanId);
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.GENERATE_SCHEDULE)) {
+            Loan loan = requireLoan(loanId);
+            List<LoanEvent> events = dbService.getLoanEvents(loanId);
+            int rows;
+            if (!events.isEmpty()) {
+                rows = generateWithEvents(loanId, loan, events).size();
+            } else {
+                try (Stream<Payment> schedule = engine.streamSchedule(loanId, loan)) {
+                    rows = dbService.saveSharedSchedule(loanId, ScheduleKey.of(loan), schedule);
+                }
             }
-            remainingBalance = remainingBalance.subtract(principalPortion);
-            Payment p = new Payment(loanId, period, 
-                                   principalPortion.setScale(2, RoundingMode.HALF_UP),
-                                   interest.setScale(2, RoundingMode.HALF_UP),
-                                   remainingBalance.setScale(2, RoundingMode.HALF_UP));
-            schedule.add(p);
-        }
-        logger.info("Schedule generated with {} payments", schedule.size());
-        dbService.saveSchedule(loanId, schedule);
-        return schedule;
+            sample.complete(rows);
+            return rows;
+        }
+    }
+
+    /**
+     * Moves loans whose schedule was stored before schedules were shared onto the shared copy for
+     * their terms. A loan is only moved if its stored rows are exactly what the engine produces
+     * now; anything else is left in place. Returns the number of loans moved.
+     */
+    public int migrateToSharedSchedules() {
+        int migrated = 0;
+        for (long loanId : dbService.findLoansWithUnsharedSchedules()) {
+            Loan loan = requireLoan(loanId);
+            List<Payment> expected = computeSchedule(loanId, loan);
+            if (sameRows(expected, dbService.getSchedule(loanId))) {
+                dbService.moveToSharedSchedule(loanId, ScheduleKey.of(loan), expected);
+                migrated++;
+            } else {
+                logger.warn("Stored schedule for loanId={} differs from the computed one; not migrated", loanId);
+            }
+        }
+        logger.info("Migrated {} loans to shared schedules", migrated);
+        return migrated;
+    }
+
+    /**
+     * Random-access view of a stored loan's schedule that computes only the periods asked for. A
+     * loan with rate changes or prepayments is computed in full with them applied.
+     */
+    public ScheduleView getScheduleView(long loanId) {
+        Loan loan = requireLoan(loanId);
+        List<LoanEvent> events = dbService.getLoanEvents(loanId);
+        if (!events.isEmpty()) {
+            return new ScheduleView(loanId, loan, computeWithEvents(loanId, loan, events).asList());
+        }
+        return new ScheduleView(loanId, loan, calculator);
     }
 
     public LoanSchedulePair runScenario(long loanId, BigDecimal newExtraPayment, BigDecimal newRate) {
         logger.info("Running scenario for loanId={}, extraPayment={}, newRate={}", 
                     loanId, newExtraPayment, newRate);
-        Loan loan = getLoanById(loanId);
-        if (loan == null) {
-            throw new IllegalArgumentException("Loan not found");
-        }
+        Loan loan = requireLoan(loanId);
         Loan scenarioLoan = new Loan(loan.getPrincipal(), 
                                     newRate != null ? newRate : loan.getAnnualInterestRate(),
                                     loan.getTermInMonths(), 
@@ -72,26 +219,133 @@ public class AmortizationService {
         return new LoanSchedulePair(scenarioLoan, scenarioSchedule);
     }
 
-    private Loan getLoanById(long loanId) {
-        String sql = "SELECT principal, annual_interest_rate, term_in_months, payment_frequency, extra_payment " +
-                     "FROM loans WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:loanease.db");
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setLong(1, loanId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new Loan(
-                    rs.getBigDecimal("principal"),
-                    rs.getBigDecimal("annual_interest_rate"),
-                    rs.getInt("term_in_months"),
-                    rs.getString("payment_frequency"),
-                    rs.getBigDecimal("extra_payment")
-                );
+    /**
+     * Evaluates every combination of {@code rates} and {@code extraPayments} for a stored loan in
+     * memory, in parallel; unlike {@link #runScenario} nothing is written to the database.
+     */
+    public ScenarioGrid sweepScenarios(long loanId, List<BigDecimal> rates, List<BigDecimal> extraPayments) {
+        logger.info("Sweeping {} x {} scenarios for loanId={}", rates.size(), extraPayments.size(), loanId);
+        Loan loan = requireLoan(loanId);
+        return new ScenarioSweep(calculator).sweep(loan, rates, extraPayments);
+    }
+
+    /** Smallest extra payment per period at which a stored loan meets {@code goal}; nothing is persisted. */
+    public ScenarioSummary solveExtraPayment(long loanId, GoalSeekSolver.Goal goal) {
+        Loan loan = requireLoan(loanId);
+        return new GoalSeekSolver(calculator).solveExtraPayment(loan, goal);
+    }
+
+    /** Highest rate at which a stored loan, with its extra payment, meets {@code goal}; nothing is persisted. */
+    public ScenarioSummary solveMaximumRate(long loanId, GoalSeekSolver.Goal goal) {
+        Loan loan = requireLoan(loanId);
+        return new GoalSeekSolver(calculator).solveMaximumRate(loan, goal);
+    }
+
+    /**
+     * Projected principal, interest, outstanding balance and active loans per period across
+     * {@code loans}, computed in parallel; no schedule is built or stored.
+     */
+    public PortfolioCashFlow projectCashFlows(List<Loan> loans) {
+        logger.info("Projecting cash flows for {} loans", loans.size());
+        return new PortfolioAggregator(calculator).aggregate(loans);
+    }
+
+    /** Recomputes a loan with events from period 1 and stores every row as the loan's own. */
+    private List<Payment> generateWithEvents(long loanId, Loan loan, List<LoanEvent> events) {
+        Schedule schedule = computeWithEvents(loanId, loan, events);
+        logger.info("Schedule generated with {} payments and {} events", schedule.size(), events.size());
+        dbService.replaceSchedule(loanId, 1, schedule);
+        return new ArrayList<>(schedule.asList());
+    }
+
+    /** Computes a loan's schedule with {@code events} applied, in memory. */
+    private Schedule computeWithEvents(long loanId, Loan loan, List<LoanEvent> events) {
+        Schedule schedule = new Schedule(loanId, loan.getTermInMonths());
+        eventEngine.generate(loan, events, schedule::add);
+        return schedule;
+    }
+
+    /**
+     * Recomputes the schedule from the event's period with {@code event} added to the loan's
+     * events and stores both. Resuming needs the balance before the period and, unless the payment
+     * is reset there, the payment in effect, which is recomputed from the balance before the
+     * period it was last set in; each is one stored row. If the loan has no stored schedule the
+     * rows before the period are computed in memory instead and stored with the rest.
+     */
+    private List<Payment> applyEvent(long loanId, Loan loan, LoanEvent event) {
+        int period = event.getPeriod();
+        List<LoanEvent> events = new ArrayList<>(dbService.getLoanEvents(loanId));
+        events.removeIf(e -> e.getPeriod() == period && e.getType() == event.getType());
+        events.add(event);
+        events.sort(LoanEvent.BY_PERIOD);
+
+        if (period > 1 && dbService.getRemainingBalanceCents(loanId, period - 1) == null
+                && dbService.getRemainingBalanceCents(loanId, 1) == null) {
+            return applyEventInMemory(loanId, loan, event, events);
+        }
+        long openingBalanceCents = balanceBefore(loanId, loan, period);
+        int reset = EventScheduleEngine.paymentResetPeriod(events, period);
+        Schedule suffix = new Schedule(loanId, loan.getTermInMonths() - period + 1);
+        if (reset == period) {
+            eventEngine.resume(loan, events, period, openingBalanceCents, suffix::add);
+        } else {
+            long paymentCents = eventEngine.paymentCents(loan, events, reset, balanceBefore(loanId, loan, reset));
+            eventEngine.resume(loan, events, period, openingBalanceCents, paymentCents, suffix::add);
+        }
+        dbService.saveLoanEvent(loanId, event, suffix);
+        return suffix.asList();
+    }
+
+    /**
+     * {@link #applyEvent} for a loan whose schedule was never stored: there are no rows to resume
+     * from, so the whole schedule is computed and stored with the event.
+     */
+    private List<Payment> applyEventInMemory(long loanId, Loan loan, LoanEvent event, List<LoanEvent> events) {
+        int period = event.getPeriod();
+        Schedule schedule = computeWithEvents(loanId, loan, events);
+        if (schedule.size() < period) {
+            throw new IllegalArgumentException("No balance left after period " + (period - 1));
+        }
+        dbService.saveLoanEvent(loanId, event, schedule);
+        return new ArrayList<>(schedule.asList().subList(period - 1, schedule.size()));
+    }
+
+    /** Balance left after {@code period - 1} of the stored schedule, in cents. */
+    private long balanceBefore(long loanId, Loan loan, int period) {
+        if (period == 1) {
+            return loan.getPrincipal().movePointRight(2).longValueExact();
+        }
+        Long balance = dbService.getRemainingBalanceCents(loanId, period - 1);
+        if (balance == null || balance == 0) {
+            throw new IllegalArgumentException("No balance left after period " + (period - 1) + " of the stored schedule");
+        }
+        return balance;
+    }
+
+    private Loan requireLoan(long loanId) {
+        Loan loan = dbService.getLoan(loanId);
+        if (loan == null) {
+            logger.error("Loan not found for loanId={}", loanId);
+            throw new IllegalArgumentException("Loan not found");
+        }
+        return loan;
+    }
+
+    private static boolean sameRows(List<Payment> expected, List<Payment> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Payment e = expected.get(i);
+            Payment a = actual.get(i);
+            if (e.getPeriod() != a.getPeriod()
+                    || e.getPrincipalPortion().compareTo(a.getPrincipalPortion()) != 0
+                    || e.getInterestPortion().compareTo(a.getInterestPortion()) != 0
+                    || e.getRemainingBalance().compareTo(a.getRemainingBalance()) != 0) {
+                return false;
             }
-        } catch (SQLException e) {
-            logger.error("Failed to retrieve loan: {}", e.getMessage());
         }
-        return null;
+        return true;
     }
 
     // Helper class to return both Loan and Schedule
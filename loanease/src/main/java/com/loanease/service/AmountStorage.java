@@ -0,0 +1,140 @@
+package com.loanease.service;
+
+import com.loanease.model.Loan;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * How a database stores monetary amounts and rates, recorded in {@code PRAGMA user_version}.
+ *
+ * <p>{@link #DECIMAL} is the original schema: {@code DECIMAL(15,2)} columns, which SQLite gives
+ * NUMERIC affinity, so every value comes back through a BigDecimal. {@link #CENTS} declares the
+ * same columns {@code INTEGER} and stores amounts in cents and rates in basis points, the scales
+ * DECIMAL rounds to anyway; rows are smaller and amounts are read with {@code getLong}.
+ */
+public enum AmountStorage {
+    DECIMAL(0, "DECIMAL(15,2)", "DECIMAL(5,4)") {
+        @Override
+        void bindMoney(PreparedStatement pstmt, int index, BigDecimal amount) throws SQLException {
+            pstmt.setBigDecimal(index, amount.setScale(2, RoundingMode.HALF_UP));
+        }
+
+        @Override
+        void bindCents(PreparedStatement pstmt, int index, long cents) throws SQLException {
+            pstmt.setBigDecimal(index, BigDecimal.valueOf(cents, 2));
+        }
+
+        @Override
+        void bindRate(PreparedStatement pstmt, int index, BigDecimal rate) throws SQLException {
+            pstmt.setBigDecimal(index, rate.setScale(4, RoundingMode.HALF_UP));
+        }
+
+        @Override
+        BigDecimal readMoney(ResultSet rs, String column) throws SQLException {
+            return rs.getBigDecimal(column).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        @Override
+        long readCents(ResultSet rs, String column) throws SQLException {
+            return readMoney(rs, column).unscaledValue().longValueExact();
+        }
+
+        @Override
+        BigDecimal readRate(ResultSet rs, String column) throws SQLException {
+            return rs.getBigDecimal(column).setScale(4, RoundingMode.HALF_UP);
+        }
+    },
+    CENTS(1, "INTEGER", "INTEGER") {
+        @Override
+        void bindMoney(PreparedStatement pstmt, int index, BigDecimal amount) throws SQLException {
+            pstmt.setLong(index, amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        }
+
+        @Override
+        void bindCents(PreparedStatement pstmt, int index, long cents) throws SQLException {
+            pstmt.setLong(index, cents);
+        }
+
+        @Override
+        void bindRate(PreparedStatement pstmt, int index, BigDecimal rate) throws SQLException {
+            pstmt.setLong(index, rate.setScale(4, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        }
+
+        @Override
+        BigDecimal readMoney(ResultSet rs, String column) throws SQLException {
+            return BigDecimal.valueOf(rs.getLong(column), 2);
+        }
+
+        @Override
+        long readCents(ResultSet rs, String column) throws SQLException {
+            return rs.getLong(column);
+        }
+
+        @Override
+        BigDecimal readRate(ResultSet rs, String column) throws SQLException {
+            return BigDecimal.valueOf(rs.getLong(column), 4);
+        }
+    };
+
+    private final int schemaVersion;
+    private final String moneyType;
+    private final String rateType;
+
+    AmountStorage(int schemaVersion, String moneyType, String rateType) {
+        this.schemaVersion = schemaVersion;
+        this.moneyType = moneyType;
+        this.rateType = rateType;
+    }
+
+    /** The {@code user_version} a database in this format carries; 0 is what older files have. */
+    public int getSchemaVersion() { return schemaVersion; }
+
+    String getMoneyType() { return moneyType; }
+
+    String getRateType() { return rateType; }
+
+    public static AmountStorage forSchemaVersion(int schemaVersion) {
+        for (AmountStorage storage : values()) {
+            if (storage.schemaVersion == schemaVersion) {
+                return storage;
+            }
+        }
+        throw new IllegalArgumentException("Unknown schema version: " + schemaVersion);
+    }
+
+    /**
+     * The loan as it reads back once stored: amounts to the cent and rates to the basis point.
+     * Schedules computed before saving must be computed from this, or they will not match the ones
+     * recomputed from the stored loan. Every format keeps the same scales.
+     */
+    public static Loan atStoredScale(Loan loan) {
+        return new Loan(loan.getPrincipal().setScale(2, RoundingMode.HALF_UP),
+                        loan.getAnnualInterestRate().setScale(4, RoundingMode.HALF_UP),
+                        loan.getTermInMonths(), loan.getPaymentFrequency(),
+                        loan.getExtraPayment().setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /** Whether storing the loan would leave its amounts unchanged, see {@link #atStoredScale}. */
+    public static boolean isAtStoredScale(Loan loan) {
+        Loan stored = atStoredScale(loan);
+        return stored.getPrincipal().compareTo(loan.getPrincipal()) == 0
+                && stored.getAnnualInterestRate().compareTo(loan.getAnnualInterestRate()) == 0
+                && stored.getExtraPayment().compareTo(loan.getExtraPayment()) == 0;
+    }
+
+    abstract void bindMoney(PreparedStatement pstmt, int index, BigDecimal amount) throws SQLException;
+
+    abstract void bindCents(PreparedStatement pstmt, int index, long cents) throws SQLException;
+
+    abstract void bindRate(PreparedStatement pstmt, int index, BigDecimal rate) throws SQLException;
+
+    abstract BigDecimal readMoney(ResultSet rs, String column) throws SQLException;
+
+    abstract long readCents(ResultSet rs, String column) throws SQLException;
+
+    abstract BigDecimal readRate(ResultSet rs, String column) throws SQLException;
+}
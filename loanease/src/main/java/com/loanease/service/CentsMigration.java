@@ -0,0 +1,103 @@
+package com.loanease.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One-shot conversion of a database from {@link AmountStorage#DECIMAL} to {@link AmountStorage#CENTS}.
+ * Each table holding amounts is renamed aside, recreated with INTEGER columns, filled from the old
+ * rows and dropped, all in one transaction; {@code user_version} is updated in the same transaction.
+ * Loan IDs are kept. Run it while nothing else has the file open:
+ *
+ * <pre>java -cp loanease.jar com.loanease.service.CentsMigration loanease.db</pre>
+ */
+public final class CentsMigration {
+    private static final Logger logger = LoggerFactory.getLogger(CentsMigration.class);
+    private static final String[] TABLES = {"loans", "payments", "schedule_payments", "loan_events"};
+
+    private CentsMigration() {
+    }
+
+    public static void main(String[] args) {
+        String path = args.length > 0 ? args[0] : "loanease.db";
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + path);
+        config.setPoolSize(0);
+        try (ConnectionProvider provider = new ConnectionProvider(config)) {
+            // Brings older files up to the current set of tables first
+            new DatabaseService(provider).initialize();
+            boolean migrated = migrate(provider);
+            System.out.println(migrated ? "Migrated " + path + " to integer cents"
+                                        : path + " already stores integer cents");
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts the database behind {@code provider}; returns false if it already stores cents.
+     * Services opened on the database before the migration must be recreated afterwards.
+     */
+    public static boolean migrate(ConnectionProvider provider) {
+        try (PooledConnection conn = provider.acquire();
+             Statement stmt = conn.getConnection().createStatement()) {
+            if (AmountStorage.forSchemaVersion(DatabaseService.userVersion(stmt)) == AmountStorage.CENTS) {
+                return false;
+            }
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                for (String table : TABLES) {
+                    stmt.execute("ALTER TABLE " + table + " RENAME TO " + table + "_decimal");
+                }
+                DatabaseService.createTables(stmt, AmountStorage.CENTS);
+                int loans = stmt.executeUpdate(
+                    "INSERT INTO loans (id, principal, annual_interest_rate, term_in_months, payment_frequency, " +
+                    "extra_payment, schedule_hash) " +
+                    "SELECT id, " + cents("principal") + ", CAST(ROUND(annual_interest_rate * 10000) AS INTEGER), " +
+                    "term_in_months, payment_frequency, " + cents("extra_payment") + ", schedule_hash " +
+                    "FROM loans_decimal");
+                int payments = stmt.executeUpdate(
+                    "INSERT INTO payments (loan_id, period, principal_portion, interest_portion, remaining_balance) " +
+                    "SELECT loan_id, period, " + paymentAmounts() + " FROM payments_decimal");
+                int shared = stmt.executeUpdate(
+                    "INSERT INTO schedule_payments (schedule_hash, period, principal_portion, interest_portion, " +
+                    "remaining_balance) " +
+                    "SELECT schedule_hash, period, " + paymentAmounts() + " FROM schedule_payments_decimal");
+                stmt.executeUpdate(
+                    "INSERT INTO loan_events (loan_id, period, type, annual_interest_rate, amount) " +
+                    "SELECT loan_id, period, type, CAST(ROUND(annual_interest_rate * 10000) AS INTEGER), " +
+                    cents("amount") + " FROM loan_events_decimal");
+                for (String table : TABLES) {
+                    stmt.execute("DROP TABLE " + table + "_decimal");
+                }
+                stmt.execute("PRAGMA user_version = " + AmountStorage.CENTS.getSchemaVersion());
+                connection.commit();
+                logger.info("Migrated {} loans, {} payments and {} shared payments to cents", loans, payments, shared);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            // Reclaim the space the DECIMAL tables used
+            stmt.execute("VACUUM");
+            return true;
+        } catch (SQLException e) {
+            logger.error("Failed to migrate database: {}", e.getMessage());
+            throw new RuntimeException("Failed to migrate database: " + e.getMessage());
+        }
+    }
+
+    private static String cents(String column) {
+        return "CAST(ROUND(" + column + " * 100) AS INTEGER)";
+    }
+
+    private static String paymentAmounts() {
+        return cents("principal_portion") + ", " + cents("interest_portion") + ", " + cents("remaining_balance");
+    }
+}
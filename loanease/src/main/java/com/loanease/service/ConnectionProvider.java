@@ -0,0 +1,138 @@
+package com.loanease.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns a small pool of long-lived SQLite connections. Connections are opened lazily up to
+ * {@link DatabaseConfig#getPoolSize()} and handed out as {@link PooledConnection}s, which cache
+ * their prepared statements and return to the pool when closed.
+ */
+public class ConnectionProvider implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionProvider.class);
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+    private static volatile ConnectionProvider defaultProvider;
+
+    private final DatabaseConfig config;
+    private final BlockingQueue<PooledConnection> idle;
+    private final AtomicInteger opened = new AtomicInteger();
+    private volatile boolean closed;
+
+    public ConnectionProvider(DatabaseConfig config) {
+        this.config = config;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, config.getPoolSize()));
+    }
+
+    /** Process-wide provider configured from system properties, shared by the default services. */
+    public static ConnectionProvider getDefault() {
+        ConnectionProvider provider = defaultProvider;
+        if (provider == null) {
+            synchronized (ConnectionProvider.class) {
+                provider = defaultProvider;
+                if (provider == null) {
+                    provider = new ConnectionProvider(DatabaseConfig.fromSystemProperties());
+                    defaultProvider = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    public DatabaseConfig getConfig() { return config; }
+
+    public PooledConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection provider is closed");
+        }
+        if (config.getPoolSize() == 0) {
+            return new PooledConnection(this, open(), 0);
+        }
+        PooledConnection pooled = idle.poll();
+        if (pooled != null) {
+            return pooled;
+        }
+        if (opened.incrementAndGet() <= config.getPoolSize()) {
+            try {
+                return new PooledConnection(this, open(), config.getStatementCacheSize());
+            } catch (SQLException e) {
+                opened.decrementAndGet();
+                throw e;
+            }
+        }
+        opened.decrementAndGet();
+        try {
+            pooled = idle.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection");
+        }
+        if (pooled == null) {
+            throw new SQLException("Timed out waiting for a database connection");
+        }
+        return pooled;
+    }
+
+    void release(PooledConnection pooled) {
+        if (config.getPoolSize() == 0) {
+            pooled.closePhysical();
+            return;
+        }
+        try {
+            Connection conn = pooled.getConnection();
+            if (conn.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            if (!conn.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warn("Discarding pooled connection: {}", e.getMessage());
+            discard(pooled);
+            return;
+        }
+        if (closed || !idle.offer(pooled)) {
+            discard(pooled);
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        opened.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    private Connection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(config.getUrl());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + config.getBusyTimeoutMillis());
+            if (config.getJournalMode() != null && !config.getJournalMode().isBlank()) {
+                stmt.execute("PRAGMA journal_mode = " + config.getJournalMode());
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled);
+        }
+        logger.info("Connection provider closed for {}", config.getUrl());
+    }
+}
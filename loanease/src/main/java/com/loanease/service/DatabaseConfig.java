@@ -0,0 +1,127 @@
+package com.loanease.service;
+
+/**
+ * Central place for database settings shared by every service that talks to SQLite.
+ * Defaults can be overridden with {@code -Dloanease.db.*} system properties.
+ */
+public class DatabaseConfig {
+    public static final String DEFAULT_URL = "jdbc:sqlite:loanease.db";
+    public static final int DEFAULT_POOL_SIZE = 4;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+    public static final String DEFAULT_JOURNAL_MODE = "WAL";
+    public static final int DEFAULT_BUSY_TIMEOUT_MILLIS = 5000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_LOAN_CACHE_SIZE = 1024;
+
+    private final String url;
+    private int poolSize = DEFAULT_POOL_SIZE;
+    private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+    private String journalMode = DEFAULT_JOURNAL_MODE;
+    private int busyTimeoutMillis = DEFAULT_BUSY_TIMEOUT_MILLIS;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int loanCacheSize = DEFAULT_LOAN_CACHE_SIZE;
+    private AmountStorage amountStorage = AmountStorage.DECIMAL;
+    private SchedulePersistence schedulePersistence = SchedulePersistence.STORED;
+
+    public DatabaseConfig(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("Database URL must not be empty");
+        }
+        this.url = url;
+    }
+
+    public static DatabaseConfig fromSystemProperties() {
+        DatabaseConfig config = new DatabaseConfig(System.getProperty("loanease.db.url", DEFAULT_URL));
+        config.setPoolSize(Integer.getInteger("loanease.db.poolSize", DEFAULT_POOL_SIZE));
+        config.setStatementCacheSize(Integer.getInteger("loanease.db.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE));
+        config.setJournalMode(System.getProperty("loanease.db.journalMode", DEFAULT_JOURNAL_MODE));
+        config.setBusyTimeoutMillis(Integer.getInteger("loanease.db.busyTimeoutMillis", DEFAULT_BUSY_TIMEOUT_MILLIS));
+        config.setBatchSize(Integer.getInteger("loanease.db.batchSize", DEFAULT_BATCH_SIZE));
+        config.setLoanCacheSize(Integer.getInteger("loanease.db.loanCacheSize", DEFAULT_LOAN_CACHE_SIZE));
+        config.setAmountStorage(AmountStorage.valueOf(
+                System.getProperty("loanease.db.amountStorage", AmountStorage.DECIMAL.name()).toUpperCase()));
+        config.setSchedulePersistence(SchedulePersistence.valueOf(
+                System.getProperty("loanease.db.schedulePersistence", SchedulePersistence.STORED.name()).toUpperCase()));
+        return config;
+    }
+
+    public String getUrl() { return url; }
+
+    public int getPoolSize() { return poolSize; }
+
+    /** A pool size of 0 disables pooling: every acquire opens a connection and every release closes it. */
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 0) {
+            throw new IllegalArgumentException("Pool size cannot be negative");
+        }
+        this.poolSize = poolSize;
+    }
+
+    public int getStatementCacheSize() { return statementCacheSize; }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative");
+        }
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public String getJournalMode() { return journalMode; }
+
+    public void setJournalMode(String journalMode) { this.journalMode = journalMode; }
+
+    public int getBusyTimeoutMillis() { return busyTimeoutMillis; }
+
+    public void setBusyTimeoutMillis(int busyTimeoutMillis) {
+        if (busyTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Busy timeout cannot be negative");
+        }
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    public int getBatchSize() { return batchSize; }
+
+    /** Number of rows sent per JDBC batch when writing schedules. */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getLoanCacheSize() { return loanCacheSize; }
+
+    /** Number of loans {@link LoanRepository} keeps in memory; 0 disables the cache. */
+    public void setLoanCacheSize(int loanCacheSize) {
+        if (loanCacheSize < 0) {
+            throw new IllegalArgumentException("Loan cache size cannot be negative");
+        }
+        this.loanCacheSize = loanCacheSize;
+    }
+
+    public AmountStorage getAmountStorage() { return amountStorage; }
+
+    /**
+     * Format for databases created from now on. An existing file keeps the format recorded in it;
+     * {@link CentsMigration} converts a DECIMAL file to CENTS.
+     */
+    public void setAmountStorage(AmountStorage amountStorage) {
+        if (amountStorage == null) {
+            throw new IllegalArgumentException("Amount storage must not be null");
+        }
+        this.amountStorage = amountStorage;
+    }
+
+    public SchedulePersistence getSchedulePersistence() { return schedulePersistence; }
+
+    /**
+     * Whether saved schedules keep their rows or only a checksum. Applies to writes only: a
+     * database can hold both kinds and every read handles either.
+     */
+    public void setSchedulePersistence(SchedulePersistence schedulePersistence) {
+        if (schedulePersistence == null) {
+            throw new IllegalArgumentException("Schedule persistence must not be null");
+        }
+        this.schedulePersistence = schedulePersistence;
+    }
+}
@@ -1,121 +1,826 @@
 package com.loanease.service;
 
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.calculator.PaymentSink;
+import com.loanease.calculator.ScheduleChecksum;
+import com.loanease.calculator.ScheduleEngine;
+import com.loanease.calculator.ScheduleKey;
 import com.loanease.model.Loan;
+import com.loanease.model.LoanEvent;
 import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+import com.loanease.metrics.MetricsRegistry;
+import com.loanease.metrics.OperationSample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class DatabaseService {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseService.class);
-    private static final String DB_URL = "jdbc:sqlite:loanease.db";
+    private static final String INSERT_PAYMENT_SQL =
+        "INSERT INTO payments (loan_id, period, principal_portion, interest_portion, remaining_balance) " +
+        "VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SHARED_SCHEDULE_SQL =
+        "INSERT OR IGNORE INTO schedules (hash, period_count) VALUES (?, ?)";
+    private static final String INSERT_SHARED_PAYMENT_SQL =
+        "INSERT INTO schedule_payments (schedule_hash, period, principal_portion, interest_portion, remaining_balance) " +
+        "VALUES (?, ?, ?, ?, ?)";
+    private static final String LINK_SCHEDULE_SQL = "UPDATE loans SET schedule_hash = ? WHERE id = ?";
+    // A loan's own rows take over from the shared schedule at the first period they cover
+    private static final String SELECT_SCHEDULE_SQL =
+        "SELECT period, principal_portion, interest_portion, remaining_balance " +
+        "FROM payments WHERE loan_id = ? " +
+        "UNION ALL " +
+        "SELECT sp.period, sp.principal_portion, sp.interest_portion, sp.remaining_balance " +
+        "FROM loans l JOIN schedule_payments sp ON sp.schedule_hash = l.schedule_hash " +
+        "WHERE l.id = ? AND sp.period < " +
+        "(SELECT COALESCE(MIN(period), 2147483647) FROM payments WHERE loan_id = ?) " +
+        "ORDER BY period";
+    private static final String SELECT_BALANCE_SQL =
+        "SELECT remaining_balance FROM payments WHERE loan_id = ? AND period = ? " +
+        "UNION ALL " +
+        "SELECT sp.remaining_balance FROM loans l JOIN schedule_payments sp ON sp.schedule_hash = l.schedule_hash " +
+        "WHERE l.id = ? AND sp.period = ? " +
+        "AND NOT EXISTS (SELECT 1 FROM payments WHERE loan_id = ? AND period <= ?)";
+    private static final String INSERT_EVENT_SQL =
+        "INSERT OR REPLACE INTO loan_events (loan_id, period, type, annual_interest_rate, amount) " +
+        "VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_CHECKSUM_SQL =
+        "SELECT s.checksum FROM loans l JOIN schedules s ON s.hash = l.schedule_hash " +
+        "WHERE l.id = ? AND s.checksum IS NOT NULL";
+
+    private final ConnectionProvider connectionProvider;
+    // Set by initialize(); amountStorage is published by the volatile write of loanRepository
+    private AmountStorage amountStorage;
+    private volatile LoanRepository loanRepository;
+    // Every engine produces the same rows, so any of them can recompute a schedule
+    private final ScheduleEngine regenerator = new LongCentsScheduleEngine(new FinancialCalculator());
 
     public DatabaseService() {
-        initializeDatabase();
-    }
-
-    private void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS loans (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    principal DECIMAL(15,2),
-                    annual_interest_rate DECIMAL(5,4),
-                    term_in_months INTEGER,
-                    payment_frequency TEXT,
-                    extra_payment DECIMAL(15,2)
-                )
-            """);
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS payments (
-                    loan_id INTEGER,
-                    period INTEGER,
-                    principal_portion DECIMAL(15,2),
-                    interest_portion DECIMAL(15,2),
-                    remaining_balance DECIMAL(15,2),
-                    PRIMARY KEY (loan_id, period),
-                    FOREIGN KEY (loan_id) REFERENCES loans(id)
-                )
-            """);
+        this(ConnectionProvider.getDefault());
+    }
+
+    /**
+     * Opens nothing yet: the database file, the SQLite driver and the tables are set up on first
+     * use, so a process that never reaches the database does not pay for them.
+     */
+    public DatabaseService(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    /** Creates any missing tables now rather than on first use. */
+    public void initialize() {
+        if (loanRepository == null) {
+            synchronized (this) {
+                if (loanRepository == null) {
+                    amountStorage = initializeDatabase();
+                    loanRepository = new LoanRepository(connectionProvider, amountStorage);
+                }
+            }
+        }
+    }
+
+    public ConnectionProvider getConnectionProvider() { return connectionProvider; }
+
+    public LoanRepository getLoanRepository() {
+        initialize();
+        return loanRepository;
+    }
+
+    /** The format this database stores amounts in, as recorded in the file. */
+    public AmountStorage getAmountStorage() {
+        initialize();
+        return amountStorage;
+    }
+
+    /**
+     * Creates any missing tables and returns the file's amount format. A new file is created in
+     * the configured format and records it in {@code user_version}; an existing one keeps its own.
+     */
+    private AmountStorage initializeDatabase() {
+        try (PooledConnection conn = connectionProvider.acquire();
+             Statement stmt = conn.getConnection().createStatement()) {
+            AmountStorage storage;
+            if (hasTable(stmt, "loans")) {
+                storage = AmountStorage.forSchemaVersion(userVersion(stmt));
+                if (storage != connectionProvider.getConfig().getAmountStorage()) {
+                    logger.warn("Database stores amounts as {}, not the configured {}; see CentsMigration",
+                                storage, connectionProvider.getConfig().getAmountStorage());
+                }
+            } else {
+                storage = connectionProvider.getConfig().getAmountStorage();
+                stmt.execute("PRAGMA user_version = " + storage.getSchemaVersion());
+            }
+            createTables(stmt, storage);
             logger.info("Database initialized successfully");
+            return storage;
         } catch (SQLException e) {
             logger.error("Failed to initialize database: {}", e.getMessage());
             throw new RuntimeException("Failed to initialize database: " + e.getMessage());
         }
     }
 
+    /** Creates whichever tables do not exist yet, declaring amount columns for {@code storage}. */
+    static void createTables(Statement stmt, AmountStorage storage) throws SQLException {
+        String money = storage.getMoneyType();
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS loans (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                principal %s,
+                annual_interest_rate %s,
+                term_in_months INTEGER,
+                payment_frequency TEXT,
+                extra_payment %s
+            )
+        """.formatted(money, storage.getRateType(), money));
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS payments (
+                loan_id INTEGER,
+                period INTEGER,
+                principal_portion %s,
+                interest_portion %s,
+                remaining_balance %s,
+                PRIMARY KEY (loan_id, period),
+                FOREIGN KEY (loan_id) REFERENCES loans(id)
+            )
+        """.formatted(money, money, money));
+        // Schedules shared by every loan with the same terms, keyed by ScheduleKey
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS schedules (
+                hash TEXT PRIMARY KEY,
+                period_count INTEGER,
+                checksum INTEGER
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS schedule_payments (
+                schedule_hash TEXT,
+                period INTEGER,
+                principal_portion %s,
+                interest_portion %s,
+                remaining_balance %s,
+                PRIMARY KEY (schedule_hash, period),
+                FOREIGN KEY (schedule_hash) REFERENCES schedules(hash)
+            )
+        """.formatted(money, money, money));
+        // Changes to a loan's terms part-way through; see LoanEvent
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS loan_events (
+                loan_id INTEGER,
+                period INTEGER,
+                type TEXT,
+                annual_interest_rate %s,
+                amount %s,
+                PRIMARY KEY (loan_id, period, type),
+                FOREIGN KEY (loan_id) REFERENCES loans(id)
+            )
+        """.formatted(storage.getRateType(), money));
+        if (!hasColumn(stmt, "loans", "schedule_hash")) {
+            // Databases created before shared schedules existed
+            stmt.execute("ALTER TABLE loans ADD COLUMN schedule_hash TEXT REFERENCES schedules(hash)");
+        }
+        if (!hasColumn(stmt, "schedules", "checksum")) {
+            // Set only for schedules saved with SchedulePersistence.REGENERATE, which have no rows
+            stmt.execute("ALTER TABLE schedules ADD COLUMN checksum INTEGER");
+        }
+        if (!hasColumn(stmt, "loan_events", "amount")) {
+            // Databases created before prepayment events existed
+            stmt.execute("ALTER TABLE loan_events ADD COLUMN amount " + money);
+        }
+    }
+
     public long saveLoan(Loan loan) {
-        String sql = "INSERT INTO loans (principal, annual_interest_rate, term_in_months, payment_frequency, extra_payment) " +
-                     "VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setBigDecimal(1, loan.getPrincipal().setScale(2, RoundingMode.HALF_UP));
-            pstmt.setBigDecimal(2, loan.getAnnualInterestRate().setScale(4, RoundingMode.HALF_UP));
-            pstmt.setInt(3, loan.getTermInMonths());
-            pstmt.setString(4, loan.getPaymentFrequency());
-            pstmt.setBigDecimal(5, loan.getExtraPayment().setScale(2, RoundingMode.HALF_UP));
-            pstmt.executeUpdate();
-            ResultSet rs = pstmt.getGeneratedKeys();
-            if (rs.next()) {
-                long loanId = rs.getLong(1);
-                logger.info("Loan saved with ID: {}", loanId);
-                return loanId;
-            }
-            throw new SQLException("Failed to retrieve loan ID");
+        return getLoanRepository().save(loan);
+    }
+
+    /** Returns the stored loan, usually from {@link LoanRepository}'s cache, or {@code null} if there is none. */
+    public Loan getLoan(long loanId) {
+        return getLoanRepository().findById(loanId);
+    }
+
+    /** Inserts several loans in one transaction, assigning each its generated ID. */
+    public long[] saveLoans(List<Loan> loans) {
+        try {
+            long[] loanIds = inTransaction(conn -> loanRepository.insertAll(conn, loans));
+            logger.info("Saved {} loans", loans.size());
+            return loanIds;
         } catch (SQLException e) {
-            logger.error("Failed to save loan: {}", e.getMessage());
-            throw new RuntimeException("Failed to save loan: " + e.getMessage());
+            logger.error("Failed to save loans: {}", e.getMessage());
+            throw new RuntimeException("Failed to save loans: " + e.getMessage());
         }
     }
 
+    /** The loan's events in the order they apply, {@link LoanEvent#BY_PERIOD}. */
+    public List<LoanEvent> getLoanEvents(long loanId) {
+        List<LoanEvent> events = new ArrayList<>();
+        String sql = "SELECT period, type, annual_interest_rate, amount FROM loan_events WHERE loan_id = ?";
+        try (PooledConnection conn = acquire()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setLong(1, loanId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int period = rs.getInt("period");
+                    switch (LoanEvent.Type.valueOf(rs.getString("type"))) {
+                        case RATE_CHANGE:
+                            events.add(LoanEvent.rateChange(period, amountStorage.readRate(rs, "annual_interest_rate")));
+                            break;
+                        case PREPAYMENT:
+                            events.add(LoanEvent.prepayment(period, amountStorage.readMoney(rs, "amount")));
+                            break;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve loan events: {}", e.getMessage());
+            throw new RuntimeException("Failed to retrieve loan events: " + e.getMessage());
+        }
+        events.sort(LoanEvent.BY_PERIOD);
+        return events;
+    }
+
+    /**
+     * Records {@code event} and replaces the loan's schedule from the event's period on with
+     * {@code suffix}, in one transaction. Rows before the event are neither read nor deleted; a
+     * loan with no stored schedule yet may pass its whole schedule from period 1 instead.
+     * Returns the number of rows written.
+     */
+    public int saveLoanEvent(long loanId, LoanEvent event, Schedule suffix) {
+        try {
+            int rows = inTransaction(conn -> {
+                PreparedStatement insert = conn.prepare(INSERT_EVENT_SQL);
+                insert.setLong(1, loanId);
+                insert.setInt(2, event.getPeriod());
+                insert.setString(3, event.getType().name());
+                if (event.getType() == LoanEvent.Type.RATE_CHANGE) {
+                    amountStorage.bindRate(insert, 4, event.getAnnualInterestRate());
+                    insert.setNull(5, Types.NUMERIC);
+                } else {
+                    insert.setNull(4, Types.NUMERIC);
+                    amountStorage.bindMoney(insert, 5, event.getAmount());
+                }
+                insert.executeUpdate();
+                return replaceRows(conn, loanId, event.getPeriod(), suffix);
+            });
+            logger.info("Saved {} for loanId={} at period {}; {} payments rewritten",
+                        event.getType(), loanId, event.getPeriod(), rows);
+            return rows;
+        } catch (SQLException e) {
+            logger.error("Failed to save loan event: {}", e.getMessage());
+            throw new RuntimeException("Failed to save loan event: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the loan's schedule from {@code fromPeriod} on with {@code rows}, which are stored
+     * as the loan's own and take precedence over any shared schedule from that period.
+     */
+    public int replaceSchedule(long loanId, int fromPeriod, Schedule rows) {
+        try {
+            int written = inTransaction(conn -> replaceRows(conn, loanId, fromPeriod, rows));
+            logger.info("Replaced schedule for loanId={} from period {} ({} payments)", loanId, fromPeriod, written);
+            return written;
+        } catch (SQLException e) {
+            logger.error("Failed to save schedule: {}", e.getMessage());
+            throw new RuntimeException("Failed to save schedule: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Balance left after {@code period} in the loan's stored schedule, in cents, or {@code null} if
+     * the schedule has no such period because it was never saved or the loan is paid off before it.
+     */
+    public Long getRemainingBalanceCents(long loanId, int period) {
+        try (PooledConnection conn = acquire()) {
+            PreparedStatement pstmt = conn.prepare(SELECT_BALANCE_SQL);
+            pstmt.setLong(1, loanId);
+            pstmt.setInt(2, period);
+            pstmt.setLong(3, loanId);
+            pstmt.setInt(4, period);
+            pstmt.setLong(5, loanId);
+            pstmt.setInt(6, period);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return amountStorage.readCents(rs, "remaining_balance");
+                }
+            }
+            if (storedChecksum(conn, loanId) == null) {
+                return null;
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve balance: {}", e.getMessage());
+            throw new RuntimeException("Failed to retrieve balance: " + e.getMessage());
+        }
+        // The shared part of the schedule was saved as a checksum only
+        Schedule schedule = getColumnarSchedule(loanId);
+        for (int i = 0; i < schedule.size(); i++) {
+            if (schedule.getPeriod(i) == period) {
+                return schedule.getRemainingBalanceCents(i);
+            }
+        }
+        return null;
+    }
+
     public void saveSchedule(long loanId, List<Payment> schedule) {
-        String sql = "INSERT INTO payments (loan_id, period, principal_portion, interest_portion, remaining_balance) " +
-                     "VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            for (Payment payment : schedule) {
-                pstmt.setLong(1, loanId);
-                pstmt.setInt(2, payment.getPeriod());
-                pstmt.setBigDecimal(3, payment.getPrincipalPortion().setScale(2, RoundingMode.HALF_UP));
-                pstmt.setBigDecimal(4, payment.getInterestPortion().setScale(2, RoundingMode.HALF_UP));
-                pstmt.setBigDecimal(5, payment.getRemainingBalance().setScale(2, RoundingMode.HALF_UP));
-                pstmt.executeUpdate();
-            }
-            logger.info("Schedule saved for loanId={}", loanId);
+        saveSchedules(Map.of(loanId, schedule));
+        logger.info("Schedule saved for loanId={}", loanId);
+    }
+
+    /**
+     * Consumes a lazily generated schedule and writes it in one transaction, holding at most one
+     * JDBC batch of rows in memory. Returns the number of rows written.
+     */
+    public int saveSchedule(long loanId, Stream<Payment> schedule) {
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.SAVE_SCHEDULE)) {
+            int rows = inTransaction(conn -> {
+                PreparedStatement pstmt = conn.prepare(INSERT_PAYMENT_SQL);
+                int written = insertPayments(pstmt, loanId, rows(schedule.iterator()), 0);
+                if (written % connectionProvider.getConfig().getBatchSize() != 0) {
+                    pstmt.executeBatch();
+                }
+                return written;
+            });
+            sample.complete(rows);
+            logger.info("Streamed {} payments for loanId={}", rows, loanId);
+            return rows;
+        } catch (SQLException e) {
+            logger.error("Failed to save schedule: {}", e.getMessage());
+            throw new RuntimeException("Failed to save schedule: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes several schedules in a single transaction using JDBC batches of
+     * {@link DatabaseConfig#getBatchSize()} rows. Either every schedule is stored or none is.
+     */
+    public void saveSchedules(Map<Long, ? extends List<Payment>> schedules) {
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.SAVE_SCHEDULE)) {
+            inTransaction(conn -> {
+                insertSchedules(conn, schedules);
+                return null;
+            });
+            sample.complete(schedules.values().stream().mapToLong(List::size).sum());
+        } catch (SQLException e) {
+            logger.error("Failed to save schedule: {}", e.getMessage());
+            throw new RuntimeException("Failed to save schedule: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts loans together with their schedules in one transaction. {@code schedules.get(i)} must
+     * be the engine's schedule for the terms of {@code loans.get(i)}: schedules are stored once per
+     * {@link ScheduleKey}, so loans with identical terms share a single copy of the rows. Loans must
+     * already be {@link AmountStorage#atStoredScale at the stored scale}, so the schedules match
+     * the ones later recomputed from the stored loans.
+     */
+    public long[] saveLoansWithSchedules(List<Loan> loans, List<? extends List<Payment>> schedules) {
+        if (loans.size() != schedules.size()) {
+            throw new IllegalArgumentException("Every loan needs exactly one schedule");
+        }
+        for (Loan loan : loans) {
+            if (!AmountStorage.isAtStoredScale(loan)) {
+                throw new IllegalArgumentException("Loan amounts must be rounded to the stored scale, got rate "
+                                                   + loan.getAnnualInterestRate());
+            }
+        }
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.SAVE_SCHEDULE)) {
+            long[] written = new long[1];
+            long[] loanIds = inTransaction(conn -> {
+                long[] ids = loanRepository.insertAll(conn, loans);
+                for (int i = 0; i < ids.length; i++) {
+                    List<Payment> schedule = schedules.get(i);
+                    written[0] += insertSharedSchedule(conn, ids[i], ScheduleKey.of(loans.get(i)), schedule.size(),
+                                                       rows(schedule.iterator()));
+                }
+                return ids;
+            });
+            sample.complete(written[0]);
+            logger.info("Saved {} loans with schedules", loans.size());
+            return loanIds;
+        } catch (SQLException e) {
+            logger.error("Failed to save loans with schedules: {}", e.getMessage());
+            throw new RuntimeException("Failed to save loans with schedules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stores {@code schedule} as the shared schedule for {@code scheduleHash}, unless a copy is
+     * already stored, and points the loan at it. Returns the number of payments in the schedule,
+     * whether or not they had to be written.
+     */
+    public int saveSharedSchedule(long loanId, String scheduleHash, List<Payment> schedule) {
+        return saveSharedSchedule(loanId, scheduleHash, schedule.size(), rows(schedule.iterator()));
+    }
+
+    /** Columnar form of {@link #saveSharedSchedule(long, String, List)}; amounts are bound from cents. */
+    public int saveSharedSchedule(long loanId, String scheduleHash, Schedule schedule) {
+        return saveSharedSchedule(loanId, scheduleHash, schedule.size(), rows(schedule));
+    }
+
+    /**
+     * Streaming form of {@link #saveSharedSchedule(long, String, List)}. The stream is not consumed
+     * at all when the schedule is already stored.
+     */
+    public int saveSharedSchedule(long loanId, String scheduleHash, Stream<Payment> schedule) {
+        return saveSharedSchedule(loanId, scheduleHash, -1, rows(schedule.iterator()));
+    }
+
+    /**
+     * Moves a loan from its own rows in {@code payments} to the shared schedule for
+     * {@code scheduleHash}, storing {@code schedule} first if no copy exists yet. The caller is
+     * responsible for checking that the loan's rows match {@code schedule}.
+     */
+    public void moveToSharedSchedule(long loanId, String scheduleHash, List<Payment> schedule) {
+        try {
+            inTransaction(conn -> {
+                insertSharedSchedule(conn, loanId, scheduleHash, schedule.size(), rows(schedule.iterator()));
+                PreparedStatement delete = conn.prepare("DELETE FROM payments WHERE loan_id = ?");
+                delete.setLong(1, loanId);
+                delete.executeUpdate();
+                return null;
+            });
+            logger.info("Moved loanId={} to shared schedule {}", loanId, scheduleHash);
+        } catch (SQLException e) {
+            logger.error("Failed to move schedule: {}", e.getMessage());
+            throw new RuntimeException("Failed to move schedule: " + e.getMessage());
+        }
+    }
+
+    /** Loans whose schedule is still stored as their own rows in {@code payments}. */
+    public List<Long> findLoansWithUnsharedSchedules() {
+        List<Long> loanIds = new ArrayList<>();
+        String sql = "SELECT DISTINCT p.loan_id FROM payments p JOIN loans l ON l.id = p.loan_id " +
+                     "WHERE l.schedule_hash IS NULL ORDER BY p.loan_id";
+        try (PooledConnection conn = acquire()) {
+            try (ResultSet rs = conn.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    loanIds.add(rs.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to find unshared schedules: {}", e.getMessage());
+            throw new RuntimeException("Failed to find unshared schedules: " + e.getMessage());
+        }
+        return loanIds;
+    }
+
+    private int saveSharedSchedule(long loanId, String scheduleHash, int periodCount, RowSource schedule) {
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.SAVE_SCHEDULE)) {
+            int[] counts = inTransaction(conn -> {
+                int written = insertSharedSchedule(conn, loanId, scheduleHash, periodCount, schedule);
+                return new int[] {written, written > 0 ? written : storedPeriodCount(conn, scheduleHash)};
+            });
+            sample.complete(counts[0]);
+            logger.info("Linked loanId={} to schedule {} ({} new payments)", loanId, scheduleHash, counts[0]);
+            return counts[1];
         } catch (SQLException e) {
             logger.error("Failed to save schedule: {}", e.getMessage());
             throw new RuntimeException("Failed to save schedule: " + e.getMessage());
         }
     }
 
+    /**
+     * Claims {@code scheduleHash} with an insert-or-ignore so that only the first writer stores the
+     * rows, or with {@link SchedulePersistence#REGENERATE} only their checksum, then links the loan.
+     * {@code periodCount} may be -1 when not known up front. Returns the number of rows written.
+     */
+    private int insertSharedSchedule(PooledConnection conn, long loanId, String scheduleHash, int periodCount,
+                                     RowSource schedule) throws SQLException {
+        PreparedStatement claim = conn.prepare(INSERT_SHARED_SCHEDULE_SQL);
+        claim.setString(1, scheduleHash);
+        claim.setInt(2, periodCount);
+        boolean claimed = claim.executeUpdate() == 1;
+        int rows = 0;
+        if (claimed && connectionProvider.getConfig().getSchedulePersistence() == SchedulePersistence.REGENERATE) {
+            ScheduleChecksum checksum = new ScheduleChecksum();
+            while (schedule.next(checksum)) {
+                // Only the checksum is kept
+            }
+            PreparedStatement update = conn.prepare(
+                    "UPDATE schedules SET period_count = ?, checksum = ? WHERE hash = ?");
+            update.setInt(1, checksum.getRows());
+            update.setLong(2, checksum.getValue());
+            update.setString(3, scheduleHash);
+            update.executeUpdate();
+        } else if (claimed) {
+            int batchSize = connectionProvider.getConfig().getBatchSize();
+            PreparedStatement pstmt = conn.prepare(INSERT_SHARED_PAYMENT_SQL);
+            RowBuffer row = new RowBuffer();
+            while (schedule.next(row)) {
+                pstmt.setString(1, scheduleHash);
+                row.bind(pstmt, amountStorage);
+                pstmt.addBatch();
+                if (++rows % batchSize == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            if (rows % batchSize != 0) {
+                pstmt.executeBatch();
+            }
+            if (periodCount < 0) {
+                PreparedStatement count = conn.prepare("UPDATE schedules SET period_count = ? WHERE hash = ?");
+                count.setInt(1, rows);
+                count.setString(2, scheduleHash);
+                count.executeUpdate();
+            }
+        }
+        PreparedStatement link = conn.prepare(LINK_SCHEDULE_SQL);
+        link.setString(1, scheduleHash);
+        link.setLong(2, loanId);
+        link.executeUpdate();
+        return rows;
+    }
+
+    private int replaceRows(PooledConnection conn, long loanId, int fromPeriod, Schedule rows) throws SQLException {
+        PreparedStatement delete = conn.prepare("DELETE FROM payments WHERE loan_id = ? AND period >= ?");
+        delete.setLong(1, loanId);
+        delete.setInt(2, fromPeriod);
+        delete.executeUpdate();
+        PreparedStatement pstmt = conn.prepare(INSERT_PAYMENT_SQL);
+        int written = insertPayments(pstmt, loanId, rows(rows), 0);
+        if (written % connectionProvider.getConfig().getBatchSize() != 0) {
+            pstmt.executeBatch();
+        }
+        return written;
+    }
+
+    private static int storedPeriodCount(PooledConnection conn, String scheduleHash) throws SQLException {
+        PreparedStatement pstmt = conn.prepare("SELECT period_count FROM schedules WHERE hash = ?");
+        pstmt.setString(1, scheduleHash);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void insertSchedules(PooledConnection conn, Map<Long, ? extends List<Payment>> schedules)
+            throws SQLException {
+        PreparedStatement pstmt = conn.prepare(INSERT_PAYMENT_SQL);
+        int rows = 0;
+        for (Map.Entry<Long, ? extends List<Payment>> entry : schedules.entrySet()) {
+            rows = insertPayments(pstmt, entry.getKey(), rows(entry.getValue().iterator()), rows);
+        }
+        if (rows % connectionProvider.getConfig().getBatchSize() != 0) {
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Adds payments to the JDBC batch, executing it every {@link DatabaseConfig#getBatchSize()} rows.
+     * {@code rowsSoFar} carries the count across calls; the caller flushes the final partial batch.
+     */
+    private int insertPayments(PreparedStatement pstmt, long loanId, RowSource payments, int rowsSoFar)
+            throws SQLException {
+        int batchSize = connectionProvider.getConfig().getBatchSize();
+        int rows = rowsSoFar;
+        RowBuffer row = new RowBuffer();
+        while (payments.next(row)) {
+            pstmt.setLong(1, loanId);
+            row.bind(pstmt, amountStorage);
+            pstmt.addBatch();
+            if (++rows % batchSize == 0) {
+                pstmt.executeBatch();
+            }
+        }
+        return rows;
+    }
+
+    /** A pooled connection to the database, setting up its tables first if this is the first use. */
+    private PooledConnection acquire() throws SQLException {
+        initialize();
+        return connectionProvider.acquire();
+    }
+
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try (PooledConnection conn = acquire()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the loan's schedule, whether it is stored as the loan's own rows, shared, or only as a
+     * checksum, in which case it is recomputed and verified.
+     *
+     * @throws IllegalStateException if a recomputed schedule does not match its stored checksum
+     */
     public List<Payment> getSchedule(long loanId) {
         List<Payment> schedule = new ArrayList<>();
-        String sql = "SELECT period, principal_portion, interest_portion, remaining_balance " +
-                     "FROM payments WHERE loan_id = ? ORDER BY period";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setLong(1, loanId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                schedule.add(new Payment(
-                    loanId,
-                    rs.getInt("period"),
-                    rs.getBigDecimal("principal_portion").setScale(2, RoundingMode.HALF_UP),
-                    rs.getBigDecimal("interest_portion").setScale(2, RoundingMode.HALF_UP),
-                    rs.getBigDecimal("remaining_balance").setScale(2, RoundingMode.HALF_UP)
-                ));
-            }
-            logger.info("Retrieved schedule with {} payments for loanId={}", schedule.size(), loanId);
+        Long checksum = null;
+        try (PooledConnection conn = acquire()) {
+            try (ResultSet rs = querySchedule(conn, loanId)) {
+                while (rs.next()) {
+                    schedule.add(new Payment(
+                        loanId,
+                        rs.getInt("period"),
+                        amountStorage.readMoney(rs, "principal_portion"),
+                        amountStorage.readMoney(rs, "interest_portion"),
+                        amountStorage.readMoney(rs, "remaining_balance")
+                    ));
+                }
+            }
+            if (schedule.isEmpty() || schedule.get(0).getPeriod() > 1) {
+                checksum = storedChecksum(conn, loanId);
+            }
         } catch (SQLException e) {
             logger.error("Failed to retrieve schedule: {}", e.getMessage());
             throw new RuntimeException("Failed to retrieve schedule: " + e.getMessage());
         }
+        if (checksum != null) {
+            int firstOwn = schedule.isEmpty() ? Integer.MAX_VALUE : schedule.get(0).getPeriod();
+            List<Payment> prefix = new ArrayList<>();
+            for (Payment p : regenerate(loanId, checksum).asList()) {
+                if (p.getPeriod() >= firstOwn) {
+                    break;
+                }
+                prefix.add(p);
+            }
+            schedule.addAll(0, prefix);
+        }
+        logger.info("Retrieved schedule with {} payments for loanId={}", schedule.size(), loanId);
         return schedule;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the loan's schedule in columnar form. With {@link AmountStorage#CENTS} the amounts go
+     * from the result set into the cent arrays without a BigDecimal.
+     *
+     * @throws IllegalStateException if a recomputed schedule does not match its stored checksum
+     */
+    public Schedule getColumnarSchedule(long loanId) {
+        Schedule schedule = new Schedule(loanId, 0);
+        Long checksum = null;
+        try (PooledConnection conn = acquire()) {
+            try (ResultSet rs = querySchedule(conn, loanId)) {
+                while (rs.next()) {
+                    schedule.add(rs.getInt("period"),
+                                 amountStorage.readCents(rs, "principal_portion"),
+                                 amountStorage.readCents(rs, "interest_portion"),
+                                 amountStorage.readCents(rs, "remaining_balance"));
+                }
+            }
+            if (schedule.size() == 0 || schedule.getPeriod(0) > 1) {
+                checksum = storedChecksum(conn, loanId);
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve schedule: {}", e.getMessage());
+            throw new RuntimeException("Failed to retrieve schedule: " + e.getMessage());
+        }
+        if (checksum != null) {
+            return splice(regenerate(loanId, checksum), schedule);
+        }
+        logger.info("Retrieved schedule with {} payments for loanId={}", schedule.size(), loanId);
+        schedule.trimToSize();
+        return schedule;
+    }
+
+    /** Regenerated shared rows up to the first of the loan's own rows, followed by those rows. */
+    private static Schedule splice(Schedule shared, Schedule own) {
+        int firstOwn = own.size() == 0 ? Integer.MAX_VALUE : own.getPeriod(0);
+        Schedule schedule = new Schedule(shared.getLoanId(), shared.size() + own.size());
+        for (int i = 0; i < shared.size() && shared.getPeriod(i) < firstOwn; i++) {
+            schedule.add(shared.getPeriod(i), shared.getPrincipalCents(i), shared.getInterestCents(i),
+                         shared.getRemainingBalanceCents(i));
+        }
+        for (int i = 0; i < own.size(); i++) {
+            schedule.add(own.getPeriod(i), own.getPrincipalCents(i), own.getInterestCents(i),
+                         own.getRemainingBalanceCents(i));
+        }
+        schedule.trimToSize();
+        return schedule;
+    }
+
+    /** Checksum of the loan's schedule if it was saved without rows, otherwise {@code null}. */
+    private static Long storedChecksum(PooledConnection conn, long loanId) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(SELECT_CHECKSUM_SQL);
+        pstmt.setLong(1, loanId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : null;
+        }
+    }
+
+    /**
+     * Recomputes a schedule saved with {@link SchedulePersistence#REGENERATE}. Called without a
+     * connection held, since reading the loan may need one of its own.
+     */
+    private Schedule regenerate(long loanId, long expectedChecksum) {
+        Loan loan = getLoanRepository().findById(loanId);
+        Schedule schedule = regenerator.generateColumnar(loanId, loan);
+        if (ScheduleChecksum.of(schedule) != expectedChecksum) {
+            logger.error("Recomputed schedule for loanId={} does not match its checksum", loanId);
+            throw new IllegalStateException("Recomputed schedule for loanId=" + loanId + " does not match its checksum");
+        }
+        return schedule;
+    }
+
+    private static ResultSet querySchedule(PooledConnection conn, long loanId) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(SELECT_SCHEDULE_SQL);
+        pstmt.setLong(1, loanId);
+        pstmt.setLong(2, loanId);
+        pstmt.setLong(3, loanId);
+        return pstmt.executeQuery();
+    }
+
+    private static RowSource rows(Iterator<Payment> payments) {
+        return sink -> {
+            if (!payments.hasNext()) {
+                return false;
+            }
+            Payment payment = payments.next();
+            sink.accept(payment.getPeriod(), LongCentsScheduleEngine.toCents(payment.getPrincipalPortion()),
+                        LongCentsScheduleEngine.toCents(payment.getInterestPortion()),
+                        LongCentsScheduleEngine.toCents(payment.getRemainingBalance()));
+            return true;
+        };
+    }
+
+    private static RowSource rows(Schedule schedule) {
+        int[] next = {0};
+        return sink -> {
+            int i = next[0];
+            if (i == schedule.size()) {
+                return false;
+            }
+            sink.accept(schedule.getPeriod(i), schedule.getPrincipalCents(i), schedule.getInterestCents(i),
+                        schedule.getRemainingBalanceCents(i));
+            next[0] = i + 1;
+            return true;
+        };
+    }
+
+    private static boolean hasTable(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + table + "'")) {
+            return rs.next();
+        }
+    }
+
+    static int userVersion(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static boolean hasColumn(Statement stmt, String table, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(PooledConnection conn) throws SQLException;
+    }
+
+    /** Rows to write, handed over one at a time in cents from whichever form the schedule is held in. */
+    @FunctionalInterface
+    private interface RowSource {
+        /** Passes the next row to {@code sink}, or returns false when there are none left. */
+        boolean next(PaymentSink sink);
+    }
+
+    /** Holds one row between the source and the statement, since binding may throw. */
+    private static final class RowBuffer implements PaymentSink {
+        private int period;
+        private long principalCents;
+        private long interestCents;
+        private long balanceCents;
+
+        @Override
+        public void accept(int period, long principalCents, long interestCents, long remainingBalanceCents) {
+            this.period = period;
+            this.principalCents = principalCents;
+            this.interestCents = interestCents;
+            this.balanceCents = remainingBalanceCents;
+        }
+
+        /** Binds period and amounts to parameters 2-5; parameter 1 identifies the owning loan or schedule. */
+        void bind(PreparedStatement pstmt, AmountStorage storage) throws SQLException {
+            pstmt.setInt(2, period);
+            storage.bindCents(pstmt, 3, principalCents);
+            storage.bindCents(pstmt, 4, interestCents);
+            storage.bindCents(pstmt, 5, balanceCents);
+        }
+    }
+}
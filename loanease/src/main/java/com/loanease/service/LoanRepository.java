@@ -0,0 +1,144 @@
+package com.loanease.service;
+
+import com.loanease.metrics.MetricsRegistry;
+import com.loanease.metrics.OperationSample;
+import com.loanease.model.Loan;
+import com.loanease.util.CacheStats;
+import com.loanease.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * The one place that reads and writes the {@code loans} table. Loans are kept in a bounded
+ * read-through {@link LruCache} of {@link DatabaseConfig#getLoanCacheSize()} entries, so repeated
+ * lookups of the same loan do not query SQLite. Cached loans are shared between callers and must
+ * not be modified. Code that changes a stored loan outside this class must call {@link #invalidate}.
+ */
+public class LoanRepository {
+    private static final Logger logger = LoggerFactory.getLogger(LoanRepository.class);
+    private static final String INSERT_LOAN_SQL =
+        "INSERT INTO loans (principal, annual_interest_rate, term_in_months, payment_frequency, extra_payment) " +
+        "VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_LOAN_SQL =
+        "SELECT principal, annual_interest_rate, term_in_months, payment_frequency, extra_payment " +
+        "FROM loans WHERE id = ?";
+
+    private final ConnectionProvider connectionProvider;
+    private final AmountStorage amountStorage;
+    private final LruCache<Long, Loan> cache;
+
+    /** @param amountStorage the format of the database, as {@link DatabaseService#getAmountStorage()} reports it */
+    public LoanRepository(ConnectionProvider connectionProvider, AmountStorage amountStorage) {
+        this.connectionProvider = connectionProvider;
+        this.amountStorage = amountStorage;
+        int cacheSize = connectionProvider.getConfig().getLoanCacheSize();
+        this.cache = cacheSize > 0 ? new LruCache<>(cacheSize) : null;
+    }
+
+    /** Inserts the loan, sets its generated ID and returns it. */
+    public long save(Loan loan) {
+        try (PooledConnection conn = connectionProvider.acquire()) {
+            long loanId = insert(conn, loan);
+            if (cache != null) {
+                cache.put(loanId, stored(loan, loanId));
+            }
+            logger.info("Loan saved with ID: {}", loanId);
+            return loanId;
+        } catch (SQLException e) {
+            logger.error("Failed to save loan: {}", e.getMessage());
+            throw new RuntimeException("Failed to save loan: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts loans on a connection the caller already holds, typically inside its transaction.
+     * Nothing is cached, since the transaction may still roll back; the loans are read through on
+     * first lookup instead.
+     */
+    long[] insertAll(PooledConnection conn, List<Loan> loans) throws SQLException {
+        long[] loanIds = new long[loans.size()];
+        for (int i = 0; i < loans.size(); i++) {
+            loanIds[i] = insert(conn, loans.get(i));
+        }
+        return loanIds;
+    }
+
+    /** Returns the stored loan with its ID set, or {@code null} if there is none. */
+    public Loan findById(long loanId) {
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.GET_LOAN)) {
+            Loan loan = cache == null ? load(loanId) : cache.getOrCompute(loanId, this::load);
+            sample.complete(loan == null ? 0 : 1);
+            return loan;
+        }
+    }
+
+    public void invalidate(long loanId) {
+        if (cache != null) {
+            cache.invalidate(loanId);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        return cache != null ? cache.getStats() : new CacheStats(0, 0, 0, 0);
+    }
+
+    private Loan load(long loanId) {
+        try (PooledConnection conn = connectionProvider.acquire()) {
+            PreparedStatement pstmt = conn.prepare(SELECT_LOAN_SQL);
+            pstmt.setLong(1, loanId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Loan loan = new Loan(
+                    amountStorage.readMoney(rs, "principal"),
+                    amountStorage.readRate(rs, "annual_interest_rate"),
+                    rs.getInt("term_in_months"),
+                    rs.getString("payment_frequency"),
+                    amountStorage.readMoney(rs, "extra_payment")
+                );
+                loan.setId(loanId);
+                return loan;
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to retrieve loan: {}", e.getMessage());
+            throw new RuntimeException("Failed to retrieve loan: " + e.getMessage());
+        }
+    }
+
+    private long insert(PooledConnection conn, Loan loan) throws SQLException {
+        PreparedStatement pstmt = conn.prepareWithGeneratedKeys(INSERT_LOAN_SQL);
+        amountStorage.bindMoney(pstmt, 1, loan.getPrincipal());
+        amountStorage.bindRate(pstmt, 2, loan.getAnnualInterestRate());
+        pstmt.setInt(3, loan.getTermInMonths());
+        pstmt.setString(4, loan.getPaymentFrequency());
+        amountStorage.bindMoney(pstmt, 5, loan.getExtraPayment());
+        pstmt.executeUpdate();
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            if (!rs.next()) {
+                throw new SQLException("Failed to retrieve loan ID");
+            }
+            long loanId = rs.getLong(1);
+            loan.setId(loanId);
+            return loanId;
+        }
+    }
+
+    /** The loan as {@link #load} would read it back. */
+    private static Loan stored(Loan loan, long loanId) {
+        Loan copy = AmountStorage.atStoredScale(loan);
+        copy.setId(loanId);
+        return copy;
+    }
+}
@@ -0,0 +1,87 @@
+package com.loanease.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A connection borrowed from a {@link ConnectionProvider}. Statements obtained through
+ * {@link #prepare(String)} are cached per SQL string and must not be closed by callers;
+ * closing this object returns the connection to the pool instead of closing it.
+ */
+public class PooledConnection implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PooledConnection.class);
+
+    private final ConnectionProvider owner;
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    PooledConnection(ConnectionProvider owner, Connection connection, int statementCacheSize) {
+        this.owner = owner;
+        this.connection = connection;
+        // Keep at least the statement currently in use so callers never receive a closed one
+        int capacity = Math.max(1, statementCacheSize);
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > capacity) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Connection getConnection() { return connection; }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return cached(sql, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    public PreparedStatement prepareWithGeneratedKeys(String sql) throws SQLException {
+        return cached("keys:" + sql, sql, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private PreparedStatement cached(String key, String sql, int autoGeneratedKeys) throws SQLException {
+        PreparedStatement pstmt = statements.get(key);
+        if (pstmt != null && !pstmt.isClosed()) {
+            pstmt.clearParameters();
+            return pstmt;
+        }
+        pstmt = connection.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, pstmt);
+        return pstmt;
+    }
+
+    @Override
+    public void close() {
+        owner.release(this);
+    }
+
+    void closePhysical() {
+        for (PreparedStatement pstmt : statements.values()) {
+            closeQuietly(pstmt);
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close connection: {}", e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close statement: {}", e.getMessage());
+        }
+    }
+}
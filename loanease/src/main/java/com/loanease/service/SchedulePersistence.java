@@ -0,0 +1,12 @@
+package com.loanease.service;
+
+/** What {@link DatabaseService} writes when a loan's shared schedule is saved. */
+public enum SchedulePersistence {
+    /** Every row goes to {@code schedule_payments}. */
+    STORED,
+    /**
+     * Only the row count and a {@link com.loanease.calculator.ScheduleChecksum} are stored; reads
+     * recompute the rows from the loan and verify them against the checksum.
+     */
+    REGENERATE
+}
@@ -0,0 +1,323 @@
+package com.loanease.ui;
+
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.metrics.MetricsRegistry;
+import com.loanease.metrics.OperationSample;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+import com.loanease.service.AmountStorage;
+import com.loanease.service.DatabaseService;
+import com.loanease.util.ExportUtil;
+import com.loanease.util.LoanInputValidator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless counterpart of {@link LoanEaseCLI} for scripts and nightly jobs. Reads one loan per line
+ * from a file or stdin as {@code principal,rate,term[,frequency[,extraPayment]]}, skipping blank
+ * lines, {@code #} comments and a header, and streams every schedule to stdout as CSV through one
+ * buffered writer. A loan that fails validation is reported on stderr and the rest still run.
+ *
+ * <pre>
+ * java -jar loanease.jar batch [--input FILE|-] [--output FILE] [--no-schedules]
+ *                              [--export-dir DIR] [--export csv|pdf|csv,pdf] [--save] [--metrics]
+ * </pre>
+ *
+ * Exits with {@link #OK}, {@link #LOAN_ERRORS} if any loan was rejected, or {@link #FAILED} on a
+ * usage or I/O error, and prints a timing summary to stderr, followed by the per-operation
+ * {@link MetricsRegistry} report with {@code --metrics}.
+ */
+public class LoanEaseBatch {
+    public static final int OK = 0;
+    public static final int LOAN_ERRORS = 1;
+    public static final int FAILED = 2;
+
+    static final String HEADER = "Loan,Period,Principal,Interest,Total Payment,Balance\n";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int SAVE_CHUNK = 1000;
+
+    private final LongCentsScheduleEngine engine = new LongCentsScheduleEngine(new FinancialCalculator());
+    private final LoanInputValidator validator = new LoanInputValidator();
+    private final Options options;
+    private final PrintStream err;
+    private ExportUtil exportUtil;
+    private DatabaseService dbService;
+    private final List<Loan> unsavedLoans = new ArrayList<>();
+    private final List<List<Payment>> unsavedSchedules = new ArrayList<>();
+    private int loans;
+    private int rejected;
+    private long rows;
+
+    private LoanEaseBatch(Options options, PrintStream err) {
+        this.options = options;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, System.in, System.out, System.err);
+        // A successful run just returns: System.exit looks up a platform logger first, which scans the whole jar
+        if (status != OK) {
+            System.exit(status);
+        }
+    }
+
+    /** Runs a batch and returns the exit status; {@code out} is flushed but not closed. */
+    public static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            err.println(Options.USAGE);
+            return FAILED;
+        }
+        if (options.help) {
+            out.println(Options.USAGE);
+            return OK;
+        }
+        long start = System.nanoTime();
+        LoanEaseBatch batch = new LoanEaseBatch(options, err);
+        try {
+            batch.process(in, out);
+        } catch (IOException | RuntimeException e) {
+            err.println("Error: " + e.getMessage());
+            return FAILED;
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        err.printf("Processed %d loans (%d rejected), %d payments in %d ms (%.0f loans/s)%n",
+                   batch.loans, batch.rejected, batch.rows, elapsedMillis,
+                   batch.loans * 1000.0 / Math.max(1, elapsedMillis));
+        if (options.metrics) {
+            MetricsRegistry.global().printReport(err);
+        }
+        return batch.rejected > 0 ? LOAN_ERRORS : OK;
+    }
+
+    private void process(InputStream stdin, PrintStream stdout) throws IOException {
+        if (options.exportDir != null) {
+            Files.createDirectories(options.exportDir);
+            exportUtil = new ExportUtil();
+        }
+        if (options.save) {
+            dbService = new DatabaseService();
+        }
+        InputStream input = options.input == null ? stdin : Files.newInputStream(options.input);
+        OutputStream output = options.output == null ? stdout : Files.newOutputStream(options.output);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.US_ASCII),
+                                               WRITE_BUFFER_SIZE);
+            try {
+                if (options.schedules) {
+                    writer.write(HEADER);
+                }
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    String spec = line.strip();
+                    if (spec.isEmpty() || spec.startsWith("#") || spec.regionMatches(true, 0, "principal", 0, 9)) {
+                        continue;
+                    }
+                    Loan loan;
+                    try {
+                        loan = parse(spec);
+                        validator.validate(loan);
+                        // At the precision loans are stored with, so saved schedules match regenerated ones
+                        loan = AmountStorage.atStoredScale(loan);
+                    } catch (IllegalArgumentException e) {
+                        err.println("Line " + lineNumber + ": " + e.getMessage());
+                        rejected++;
+                        continue;
+                    }
+                    try {
+                        process(loans + 1, loan, writer);
+                    } catch (IllegalArgumentException | ArithmeticException e) {
+                        // Valid input that the engine or an export cannot handle, such as an amount too large for cents
+                        err.println("Line " + lineNumber + ": " + e.getMessage());
+                        rejected++;
+                        continue;
+                    }
+                    if (++loans == 1) {
+                        // The first schedule goes out at once; the rest wait for the buffer to fill
+                        writer.flush();
+                    }
+                }
+                saveChunk();
+            } finally {
+                writer.flush();
+                if (options.output != null) {
+                    writer.close();
+                }
+            }
+        } finally {
+            if (options.input != null) {
+                input.close();
+            }
+        }
+    }
+
+    private void process(int loanNumber, Loan loan, Writer writer) throws IOException {
+        Schedule schedule = new Schedule(loanNumber, loan.getTermInMonths());
+        try (OperationSample sample = MetricsRegistry.start(MetricsRegistry.GENERATE_SCHEDULE)) {
+            engine.generate(loan, schedule::add);
+            sample.complete(schedule.size());
+        }
+        // Exports first, so a loan that fails in one leaves no rows behind on stdout
+        if (options.exportCsv) {
+            exportUtil.exportToCSV(schedule, options.exportDir.resolve("schedule_" + loanNumber + ".csv").toString());
+        }
+        if (options.exportPdf) {
+            exportUtil.exportToPDF(loan, schedule.asList(),
+                                   options.exportDir.resolve("schedule_" + loanNumber + ".pdf").toString());
+        }
+        rows += schedule.size();
+        if (options.schedules) {
+            StringBuilder row = new StringBuilder(64);
+            for (int i = 0; i < schedule.size(); i++) {
+                long principal = schedule.getPrincipalCents(i);
+                long interest = schedule.getInterestCents(i);
+                row.setLength(0);
+                row.append(loanNumber).append(',').append(schedule.getPeriod(i)).append(',');
+                appendCents(row, principal).append(',');
+                appendCents(row, interest).append(',');
+                appendCents(row, principal + interest).append(',');
+                appendCents(row, schedule.getRemainingBalanceCents(i)).append('\n');
+                writer.append(row);
+            }
+        }
+        if (dbService != null) {
+            unsavedLoans.add(loan);
+            unsavedSchedules.add(schedule.asList());
+            if (unsavedLoans.size() == SAVE_CHUNK) {
+                saveChunk();
+            }
+        }
+    }
+
+    /** Stores the loans processed since the last chunk, with shared schedules, in one transaction. */
+    private void saveChunk() {
+        if (dbService != null && !unsavedLoans.isEmpty()) {
+            dbService.saveLoansWithSchedules(unsavedLoans, unsavedSchedules);
+            unsavedLoans.clear();
+            unsavedSchedules.clear();
+        }
+    }
+
+    static Loan parse(String spec) {
+        String[] fields = spec.split(",");
+        if (fields.length < 3 || fields.length > 5) {
+            throw new IllegalArgumentException("Expected principal,rate,term[,frequency[,extraPayment]]");
+        }
+        try {
+            return new Loan(new BigDecimal(fields[0].strip()), new BigDecimal(fields[1].strip()),
+                            Integer.parseInt(fields[2].strip()),
+                            fields.length > 3 && !fields[3].isBlank() ? fields[3].strip() : "Monthly",
+                            fields.length > 4 && !fields[4].isBlank() ? new BigDecimal(fields[4].strip()) : BigDecimal.ZERO);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in \"" + spec + "\"");
+        }
+    }
+
+    private static StringBuilder appendCents(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        return out.append(cents / 100).append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    private static final class Options {
+        static final String USAGE =
+            "Usage: loanease batch [--input FILE|-] [--output FILE] [--no-schedules]\n" +
+            "                      [--export-dir DIR] [--export csv|pdf|csv,pdf] [--save] [--metrics]\n" +
+            "Reads principal,rate,term[,frequency[,extraPayment]] per line and writes the schedules as CSV.";
+
+        Path input;
+        Path output;
+        Path exportDir;
+        boolean exportCsv;
+        boolean exportPdf;
+        boolean schedules = true;
+        boolean save;
+        boolean metrics;
+        boolean help;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            String exports = null;
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--input":
+                        String input = value(args, ++i, "--input");
+                        options.input = input.equals("-") ? null : Path.of(input);
+                        break;
+                    case "--output":
+                        options.output = Path.of(value(args, ++i, "--output"));
+                        break;
+                    case "--export-dir":
+                        options.exportDir = Path.of(value(args, ++i, "--export-dir"));
+                        break;
+                    case "--export":
+                        exports = value(args, ++i, "--export");
+                        break;
+                    case "--no-schedules":
+                        options.schedules = false;
+                        break;
+                    case "--save":
+                        options.save = true;
+                        break;
+                    case "--metrics":
+                        options.metrics = true;
+                        break;
+                    case "--help":
+                        options.help = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (exports != null && options.exportDir == null) {
+                throw new IllegalArgumentException("--export needs --export-dir");
+            }
+            if (options.exportDir != null) {
+                for (String format : (exports != null ? exports : "csv").split(",")) {
+                    switch (format.strip()) {
+                        case "csv":
+                            options.exportCsv = true;
+                            break;
+                        case "pdf":
+                            options.exportPdf = true;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unsupported export format: " + format);
+                    }
+                }
+            }
+            return options;
+        }
+
+        private static String value(String[] args, int i, String option) {
+            if (i >= args.length) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            return args[i];
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.loanease.ui;
 
+import com.loanease.metrics.MetricsRegistry;
 import com.loanease.model.Loan;
 import com.loanease.model.Payment;
+import com.loanease.server.LoanEaseServer;
 import com.loanease.service.AmortizationService;
 import com.loanease.util.ExportUtil;
 import com.loanease.util.LoanInputValidator;
@@ -10,11 +12,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
 public class LoanEaseCLI {
-    private static final Logger logger = LoggerFactory.getLogger(LoanEaseCLI.class);
+    // Not static, so that serve and batch runs do not start the logging framework just to dispatch
+    private final Logger logger = LoggerFactory.getLogger(LoanEaseCLI.class);
     private final AmortizationService service = new AmortizationService();
     private final LoanInputValidator validator = new LoanInputValidator();
     private final ExportUtil exportUtil = new ExportUtil();
@@ -114,7 +118,23 @@ public class LoanEaseCLI {
         }
     }
 
-    public static void main(String[] args) {
+    /**
+     * {@code serve [port]} runs {@link LoanEaseServer} and {@code batch [options]} runs
+     * {@link LoanEaseBatch} instead of the interactive prompts. With {@code -Dloanease.metrics=true}
+     * the interactive session ends with the {@link MetricsRegistry} report.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("serve")) {
+            LoanEaseServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("batch")) {
+            LoanEaseBatch.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         new LoanEaseCLI().start();
+        if (Boolean.getBoolean("loanease.metrics")) {
+            MetricsRegistry.global().printReport(System.out);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.loanease.util;
+
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes schedules in the CSV format of {@link ExportUtil#exportToCSV(java.util.List, String)}:
+ * a header, one row per payment and a Totals row. Amounts are formatted from whole cents straight
+ * into a reusable byte buffer that is drained through a {@link FileChannel}, so no String or
+ * Formatter is created per row. Output is plain ASCII, optionally gzip-compressed as it is written.
+ */
+public class CsvScheduleWriter {
+    static final String HEADER = "Period,Principal,Interest,Total Payment,Balance\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Longest possible row: five 20-digit numbers with sign, point, separators and newline
+    private static final int MAX_ROW_BYTES = 128;
+
+    private final boolean gzip;
+
+    public CsvScheduleWriter() {
+        this(false);
+    }
+
+    public CsvScheduleWriter(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    /** Writes the schedule to {@code path}, replacing any existing file; returns the number of payment rows. */
+    public long write(Iterable<Payment> schedule, Path path) throws IOException {
+        return write(schedule.iterator(), path);
+    }
+
+    /** Consumes the stream as rows are written, so a lazily generated schedule is never held in memory. */
+    public long write(Stream<Payment> schedule, Path path) throws IOException {
+        return write(schedule.iterator(), path);
+    }
+
+    public long write(Schedule schedule, Path path) throws IOException {
+        try (RowEncoder out = open(path)) {
+            for (int i = 0; i < schedule.size(); i++) {
+                out.row(schedule.getPeriod(i), schedule.getPrincipalCents(i), schedule.getInterestCents(i),
+                        schedule.getRemainingBalanceCents(i));
+            }
+            return out.finish();
+        }
+    }
+
+    public long write(Iterator<Payment> schedule, Path path) throws IOException {
+        try (RowEncoder out = open(path)) {
+            return encode(schedule, out);
+        }
+    }
+
+    /** Writes the schedule to {@code out} as rows are produced and closes it, e.g. an HTTP response body. */
+    public long write(Iterator<Payment> schedule, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        try (RowEncoder encoder = new RowEncoder(Channels.newChannel(target))) {
+            return encode(schedule, encoder);
+        }
+    }
+
+    private static long encode(Iterator<Payment> schedule, RowEncoder out) throws IOException {
+        while (schedule.hasNext()) {
+            Payment payment = schedule.next();
+            out.row(payment.getPeriod(), LongCentsScheduleEngine.toCents(payment.getPrincipalPortion()),
+                    LongCentsScheduleEngine.toCents(payment.getInterestPortion()),
+                    LongCentsScheduleEngine.toCents(payment.getRemainingBalance()));
+        }
+        return out.finish();
+    }
+
+    private RowEncoder open(Path path) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                            StandardOpenOption.TRUNCATE_EXISTING);
+        if (!gzip) {
+            return new RowEncoder(file);
+        }
+        try {
+            return new RowEncoder(Channels.newChannel(
+                    new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE)));
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /** Accumulates ASCII rows in one buffer and keeps the running totals for the Totals row. */
+    private static final class RowEncoder implements Closeable {
+        private final WritableByteChannel channel;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final ByteBuffer view = ByteBuffer.wrap(buffer);
+        private int position;
+        private long rows;
+        private long totalPrincipal;
+        private long totalInterest;
+        private long totalPayment;
+
+        RowEncoder(WritableByteChannel channel) {
+            this.channel = channel;
+            putAscii(HEADER);
+        }
+
+        void row(int period, long principal, long interest, long balance) throws IOException {
+            if (position > BUFFER_SIZE - MAX_ROW_BYTES) {
+                drain();
+            }
+            long payment = principal + interest;
+            totalPrincipal += principal;
+            totalInterest += interest;
+            totalPayment += payment;
+            putLong(period);
+            buffer[position++] = ',';
+            putCents(principal);
+            buffer[position++] = ',';
+            putCents(interest);
+            buffer[position++] = ',';
+            putCents(payment);
+            buffer[position++] = ',';
+            putCents(balance);
+            buffer[position++] = '\n';
+            rows++;
+        }
+
+        long finish() throws IOException {
+            if (position > BUFFER_SIZE - MAX_ROW_BYTES) {
+                drain();
+            }
+            putAscii("Totals,");
+            putCents(totalPrincipal);
+            buffer[position++] = ',';
+            putCents(totalInterest);
+            buffer[position++] = ',';
+            putCents(totalPayment);
+            putAscii(",\n");
+            drain();
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void drain() throws IOException {
+            view.clear().limit(position);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+            position = 0;
+        }
+
+        private void putAscii(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                buffer[position++] = (byte) text.charAt(i);
+            }
+        }
+
+        /** Writes {@code cents} as a decimal with exactly two fraction digits, like {@code %.2f}. */
+        private void putCents(long cents) {
+            if (cents < 0) {
+                buffer[position++] = '-';
+                cents = -cents;
+            }
+            putLong(cents / 100);
+            buffer[position++] = '.';
+            int fraction = (int) (cents % 100);
+            buffer[position++] = (byte) ('0' + fraction / 10);
+            buffer[position++] = (byte) ('0' + fraction % 10);
+        }
+
+        private void putLong(long value) {
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            int end = position + digits;
+            for (int i = end - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position = end;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.loanease.util;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Iterator;
+
+/**
+ * Renders schedules into one PDF with memory that stays flat as the document grows. Tables are
+ * built in iText's large-table mode and flushed every {@value #FLUSH_ROWS} rows, so laid-out rows
+ * are written to the page and released instead of every cell of every loan being held until the
+ * end. Fonts and cell styles are created once per document and shared by all cells.
+ *
+ * <p>Each {@link #addLoan} call appends a loan section (details, schedule table and totals),
+ * starting on a new page after the first; rows may come from a lazily generated stream.
+ */
+public class PdfScheduleWriter implements Closeable {
+    static final int FLUSH_ROWS = 64;
+    private static final float[] COLUMN_WIDTHS = {20, 20, 20, 20, 20};
+    private static final String[] HEADERS = {"Period", "Principal", "Interest", "Total Payment", "Balance"};
+
+    private final PdfDocument pdf;
+    private final Document document;
+    private final Style bodyCell;
+    private final Style boldCell;
+    private final Style detail;
+    private final Style heading;
+    private int loans;
+
+    public PdfScheduleWriter(String filePath) throws IOException {
+        this(new PdfWriter(filePath));
+    }
+
+    /** Writes the document to {@code out} as pages complete; {@link #close()} closes the stream. */
+    public PdfScheduleWriter(OutputStream out) throws IOException {
+        this(new PdfWriter(out));
+    }
+
+    private PdfScheduleWriter(PdfWriter writer) throws IOException {
+        this.pdf = new PdfDocument(writer);
+        try {
+            this.document = new Document(pdf);
+            PdfFont regular = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+            PdfFont bold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            this.bodyCell = new Style().setFont(regular).setTextAlignment(TextAlignment.CENTER);
+            this.boldCell = new Style().setFont(bold).setTextAlignment(TextAlignment.CENTER);
+            this.detail = new Style().setFont(regular).setFontSize(12);
+            this.heading = new Style().setFont(bold).setFontSize(14).setMarginBottom(10);
+            document.add(new Paragraph("LoanEase Amortization Schedule")
+                    .setFont(bold)
+                    .setFontSize(18)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(20));
+        } catch (IOException | RuntimeException e) {
+            // The caller never gets this instance, so release the file or stream here
+            try {
+                pdf.close();
+            } catch (RuntimeException closeFailure) {
+                // A document without pages cannot be finished; still close what it writes to
+                e.addSuppressed(closeFailure);
+                try {
+                    writer.close();
+                } catch (IOException writerFailure) {
+                    e.addSuppressed(writerFailure);
+                }
+            }
+            throw e;
+        }
+    }
+
+    public int addLoan(Loan loan, Iterable<Payment> schedule) {
+        return addLoan(loan, schedule.iterator());
+    }
+
+    /** Adds a loan section, consuming {@code schedule} one row at a time; returns the number of rows. */
+    public int addLoan(Loan loan, Iterator<Payment> schedule) {
+        Table table = startLoan(loan);
+        long totalPrincipal = 0;
+        long totalInterest = 0;
+        int rows = 0;
+        while (schedule.hasNext()) {
+            Payment payment = schedule.next();
+            long principal = LongCentsScheduleEngine.toCents(payment.getPrincipalPortion());
+            long interest = LongCentsScheduleEngine.toCents(payment.getInterestPortion());
+            long balance = LongCentsScheduleEngine.toCents(payment.getRemainingBalance());
+            addRow(table, payment.getPeriod(), principal, interest, balance);
+            totalPrincipal += principal;
+            totalInterest += interest;
+            if (++rows % FLUSH_ROWS == 0) {
+                table.flush();
+            }
+        }
+        finishLoan(table, totalPrincipal, totalInterest);
+        return rows;
+    }
+
+    public int addLoan(Loan loan, Schedule schedule) {
+        Table table = startLoan(loan);
+        for (int i = 0; i < schedule.size(); i++) {
+            addRow(table, schedule.getPeriod(i), schedule.getPrincipalCents(i), schedule.getInterestCents(i),
+                   schedule.getRemainingBalanceCents(i));
+            if ((i + 1) % FLUSH_ROWS == 0) {
+                table.flush();
+            }
+        }
+        finishLoan(table, schedule.getTotalPrincipalCents(), schedule.getTotalInterestCents());
+        return schedule.size();
+    }
+
+    @Override
+    public void close() {
+        document.close();
+    }
+
+    private Table startLoan(Loan loan) {
+        if (loans++ > 0) {
+            document.add(new AreaBreak());
+        }
+        document.add(new Paragraph("Loan Details").addStyle(heading));
+        document.add(new Paragraph(String.format("Principal: $%,.2f",
+                loan.getPrincipal().setScale(2, RoundingMode.HALF_UP))).addStyle(detail));
+        document.add(new Paragraph(String.format("Annual Interest Rate: %.2f%%",
+                loan.getAnnualInterestRate().multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP)))
+                .addStyle(detail));
+        document.add(new Paragraph(String.format("Term: %d months", loan.getTermInMonths())).addStyle(detail));
+        document.add(new Paragraph(String.format("Payment Frequency: %s", loan.getPaymentFrequency()))
+                .addStyle(detail));
+        document.add(new Paragraph(String.format("Extra Payment per Period: $%,.2f",
+                loan.getExtraPayment().setScale(2, RoundingMode.HALF_UP))).addStyle(detail).setMarginBottom(20));
+
+        Table table = new Table(UnitValue.createPercentArray(COLUMN_WIDTHS), true)
+                .setWidth(UnitValue.createPercentValue(100));
+        for (String header : HEADERS) {
+            table.addHeaderCell(new Cell().add(new Paragraph(header)).addStyle(boldCell));
+        }
+        // In large-table mode the table is added first and rows are laid out as they are flushed
+        document.add(table);
+        return table;
+    }
+
+    private void addRow(Table table, int period, long principal, long interest, long balance) {
+        table.addCell(new Cell().add(new Paragraph(Integer.toString(period))).addStyle(bodyCell));
+        table.addCell(new Cell().add(new Paragraph(dollars(principal))).addStyle(bodyCell));
+        table.addCell(new Cell().add(new Paragraph(dollars(interest))).addStyle(bodyCell));
+        table.addCell(new Cell().add(new Paragraph(dollars(principal + interest))).addStyle(bodyCell));
+        table.addCell(new Cell().add(new Paragraph(dollars(balance))).addStyle(bodyCell));
+    }
+
+    private void finishLoan(Table table, long totalPrincipal, long totalInterest) {
+        table.addCell(new Cell().add(new Paragraph("Totals")).addStyle(boldCell));
+        table.addCell(new Cell().add(new Paragraph(dollars(totalPrincipal))).addStyle(boldCell));
+        table.addCell(new Cell().add(new Paragraph(dollars(totalInterest))).addStyle(boldCell));
+        table.addCell(new Cell().add(new Paragraph(dollars(totalPrincipal + totalInterest))).addStyle(boldCell));
+        table.addCell(new Cell().add(new Paragraph("")).addStyle(boldCell)); // No total for Balance
+        table.complete();
+    }
+
+    /** Same text as {@code String.format("$%,.2f", cents / 100)} without the Formatter. */
+    static String dollars(long cents) {
+        StringBuilder text = new StringBuilder(24).append('$');
+        if (cents < 0) {
+            text.append('-');
+            cents = -cents;
+        }
+        String whole = Long.toString(cents / 100);
+        int firstGroup = whole.length() % 3 == 0 ? 3 : whole.length() % 3;
+        text.append(whole, 0, firstGroup);
+        for (int i = firstGroup; i < whole.length(); i += 3) {
+            text.append(',').append(whole, i, i + 3);
+        }
+        int fraction = (int) (cents % 100);
+        return text.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10)).toString();
+    }
+}
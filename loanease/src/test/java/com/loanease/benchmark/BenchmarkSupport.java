@@ -0,0 +1,59 @@
+package com.loanease.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.loanease.model.Loan;
+import com.loanease.service.AmountStorage;
+import com.loanease.service.ConnectionProvider;
+import com.loanease.service.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/** Fixtures shared by the JMH benchmarks. */
+final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    /** The services log every call at INFO, which would dominate the timings. */
+    static void quietLogging() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    static Loan loan(int termInMonths) {
+        return new Loan(new BigDecimal("250000.00"), new BigDecimal("0.0525"), termInMonths, "Monthly", BigDecimal.ZERO);
+    }
+
+    static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("loanease-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ConnectionProvider openDatabase(Path dir) {
+        return openDatabase(dir, AmountStorage.DECIMAL);
+    }
+
+    static ConnectionProvider openDatabase(Path dir, AmountStorage amountStorage) {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dir.resolve("bench.db"));
+        config.setAmountStorage(amountStorage);
+        return new ConnectionProvider(config);
+    }
+
+    static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.loanease.benchmark;
+
+import com.loanease.calculator.FinancialCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one payment calculation. {@code computePMTExact} carries the full power {@code (1+r)^n},
+ * whose digits grow with the term; {@code computePMT} works at 34 digits and, for rates on the
+ * 1/8 percent grid, reads the annuity factor from the precomputed table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CalculatorBenchmark {
+    @Param({"12", "60", "120", "240", "360", "480"})
+    private int termInMonths;
+
+    /** 5.25% is on the precomputed grid, 5.37% is not. */
+    @Param({"0.0525", "0.0537"})
+    private String annualRate;
+
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final BigDecimal principal = new BigDecimal("250000.00");
+    private BigDecimal rate;
+
+    @Setup
+    public void setUp() {
+        rate = new BigDecimal(annualRate);
+    }
+
+    @Benchmark
+    public BigDecimal computePMT() {
+        return calculator.computePMT(principal, rate, termInMonths, "Monthly");
+    }
+
+    @Benchmark
+    public BigDecimal computePMTExact() {
+        return calculator.computePMTExact(principal, rate, termInMonths, "Monthly");
+    }
+}
@@ -0,0 +1,78 @@
+package com.loanease.benchmark;
+
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+import com.loanease.util.ExportUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** CSV and PDF export of one schedule to files in a temp directory. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExportBenchmark {
+    @Param({"60", "360"})
+    private int termInMonths;
+
+    private final ExportUtil exportUtil = new ExportUtil();
+    private Path dir;
+    private Loan loan;
+    private List<Payment> schedule;
+    private Schedule columnar;
+    private String csvPath;
+    private String pdfPath;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        dir = BenchmarkSupport.createTempDirectory();
+        loan = BenchmarkSupport.loan(termInMonths);
+        LongCentsScheduleEngine engine = new LongCentsScheduleEngine(new FinancialCalculator());
+        schedule = engine.generateSchedule(1, loan);
+        columnar = engine.generateColumnar(1, loan);
+        csvPath = dir.resolve("schedule.csv").toString();
+        pdfPath = dir.resolve("schedule.pdf").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkSupport.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void exportToCSV() throws IOException {
+        exportUtil.exportToCSV(schedule, csvPath);
+    }
+
+    @Benchmark
+    public void exportColumnarToCSV() throws IOException {
+        exportUtil.exportToCSV(columnar, csvPath);
+    }
+
+    @Benchmark
+    public void exportToPDF() throws IOException {
+        exportUtil.exportToPDF(loan, schedule, pdfPath);
+    }
+}
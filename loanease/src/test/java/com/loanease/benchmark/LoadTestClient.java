@@ -0,0 +1,169 @@
+package com.loanease.benchmark;
+
+import com.loanease.server.LoanEaseServer;
+import com.loanease.service.AmortizationService;
+import com.loanease.service.ConnectionProvider;
+import com.loanease.service.DatabaseService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for {@link LoanEaseServer}. A set of loans is created up front; each
+ * client then fetches the schedule of a random one, alternating JSON and CSV, and sends the next
+ * request as soon as the response is read, until the time is up. Prints requests/sec and p50/p99
+ * latency.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:... com.loanease.benchmark.LoadTestClient \
+ *     [baseUrl|embedded] [clients] [seconds] [term]
+ * </pre>
+ *
+ * With {@code embedded} (the default) a server is started in this JVM on a temporary database, so
+ * the numbers include both sides on the same machine.
+ */
+public final class LoadTestClient {
+    private static final int LOANS = 20;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private LoadTestClient() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "embedded";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int term = args.length > 3 ? Integer.parseInt(args[3]) : 360;
+        BenchmarkSupport.quietLogging();
+
+        Path dir = null;
+        ConnectionProvider provider = null;
+        LoanEaseServer server = null;
+        String baseUrl = target;
+        if (target.equals("embedded")) {
+            dir = BenchmarkSupport.createTempDirectory();
+            provider = BenchmarkSupport.openDatabase(dir);
+            server = new LoanEaseServer(new AmortizationService(new DatabaseService(provider)), 0);
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+        try {
+            run(baseUrl, clients, seconds, term);
+        } finally {
+            if (server != null) {
+                server.close();
+                provider.close();
+                BenchmarkSupport.deleteRecursively(dir);
+            }
+        }
+    }
+
+    private static void run(String baseUrl, int clients, int seconds, int term) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long[] loanIds = new long[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            String form = "principal=" + (100_000 + i * 5_000) + "&rate=0.0" + (3 + i % 5) + "&term=" + term;
+            HttpResponse<String> created = http.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/loans"))
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString(form)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = ID.matcher(created.body());
+            if (created.statusCode() != 201 || !matcher.find()) {
+                throw new IOException("Could not create loan: " + created.statusCode() + " " + created.body());
+            }
+            loanIds[i] = Long.parseLong(matcher.group(1));
+        }
+
+        // Warm-up, so the JIT and the loan cache do not land in the measurement
+        drive(http, baseUrl, loanIds, clients, System.nanoTime() + Duration.ofSeconds(Math.min(3, seconds)).toNanos());
+        long start = System.nanoTime();
+        Result result = drive(http, baseUrl, loanIds, clients, start + Duration.ofSeconds(seconds).toNanos());
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = Arrays.copyOf(result.latencies, result.count);
+        Arrays.sort(latencies);
+        System.out.printf("%d clients, %d-month schedules, %.1f s%n", clients, term, elapsed);
+        System.out.printf("requests: %d (%d errors), %.0f req/s%n", result.count, result.errors, result.count / elapsed);
+        System.out.printf("latency ms: p50 %.2f  p99 %.2f  max %.2f%n", percentile(latencies, 0.50) / 1e6,
+                          percentile(latencies, 0.99) / 1e6,
+                          latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static Result drive(HttpClient http, String baseUrl, long[] loanIds, int clients, long deadline)
+            throws Exception {
+        Result total = new Result();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?>[] workers = new Future<?>[clients];
+            Result[] results = new Result[clients];
+            for (int c = 0; c < clients; c++) {
+                Result result = results[c] = new Result();
+                workers[c] = executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        long loanId = loanIds[random.nextInt(loanIds.length)];
+                        String format = (result.count & 1) == 0 ? "json" : "csv";
+                        HttpRequest request = HttpRequest.newBuilder(
+                                URI.create(baseUrl + "/loans/" + loanId + "/schedule?format=" + format)).GET().build();
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            result.record(System.nanoTime() - t0, response.statusCode() != 200);
+                        } catch (IOException e) {
+                            result.record(System.nanoTime() - t0, true);
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (int c = 0; c < clients; c++) {
+                workers[c].get();
+                total.add(results[c]);
+            }
+        }
+        return total;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    /** Latencies of one client in nanoseconds; merged once the run is over. */
+    private static final class Result {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long nanos, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void add(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], false);
+            }
+            errors += other.errors;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.loanease.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.loanease.model.Loan;
+import com.loanease.service.AmortizationService;
+import com.loanease.service.ConnectionProvider;
+import com.loanease.service.DatabaseConfig;
+import com.loanease.service.DatabaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures loans/sec for saveLoan + generateSchedule with pooling disabled (one connection per call,
+ * the original behaviour) and enabled. Run with:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.loanease.benchmark.LoanThroughputBenchmark -Dexec.classpathScope=test}
+ */
+public class LoanThroughputBenchmark {
+    private static final int WARMUP_LOANS = 200;
+    private static final int MEASURED_LOANS = 1000;
+
+    public static void main(String[] args) throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        int loans = args.length > 0 ? Integer.parseInt(args[0]) : MEASURED_LOANS;
+        double unpooled = run(0, loans);
+        double pooled = run(DatabaseConfig.DEFAULT_POOL_SIZE, loans);
+        System.out.printf("unpooled: %.1f loans/sec%n", unpooled);
+        System.out.printf("pooled:   %.1f loans/sec (%.1fx)%n", pooled, pooled / unpooled);
+    }
+
+    private static double run(int poolSize, int loans) throws IOException {
+        Path dir = Files.createTempDirectory("loanease-bench");
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + dir.resolve("bench.db"));
+        config.setPoolSize(poolSize);
+        try (ConnectionProvider provider = new ConnectionProvider(config)) {
+            AmortizationService service = new AmortizationService(new DatabaseService(provider));
+            Loan loan = new Loan(new BigDecimal("250000"), new BigDecimal("0.0525"), 360, "Monthly", BigDecimal.ZERO);
+            for (int i = 0; i < WARMUP_LOANS; i++) {
+                service.generateSchedule(service.saveLoan(loan));
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < loans; i++) {
+                service.generateSchedule(service.saveLoan(loan));
+            }
+            return loans / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+}
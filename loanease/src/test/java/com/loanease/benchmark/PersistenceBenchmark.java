@@ -0,0 +1,103 @@
+package com.loanease.benchmark;
+
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+import com.loanease.service.AmountStorage;
+import com.loanease.service.ConnectionProvider;
+import com.loanease.service.DatabaseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading a 360-period schedule against a SQLite file in a temp directory, with amounts
+ * stored as DECIMAL or as integer cents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersistenceBenchmark {
+    @Param({"DECIMAL", "CENTS"})
+    public AmountStorage amountStorage;
+
+    private Path dir;
+    private ConnectionProvider provider;
+    private DatabaseService dbService;
+    private Loan loan;
+    private List<Payment> schedule;
+    private Schedule columnarSchedule;
+    private long storedLoanId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        dir = BenchmarkSupport.createTempDirectory();
+        provider = BenchmarkSupport.openDatabase(dir, amountStorage);
+        dbService = new DatabaseService(provider);
+        loan = BenchmarkSupport.loan(360);
+        schedule = new LongCentsScheduleEngine(new FinancialCalculator()).generateSchedule(0, loan);
+        columnarSchedule = Schedule.fromPayments(0, schedule);
+        storedLoanId = dbService.saveLoan(loan);
+        dbService.saveSchedule(storedLoanId, schedule);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        provider.close();
+        BenchmarkSupport.deleteRecursively(dir);
+    }
+
+    /** A new loan with its own copy of every row, as schedules were stored before sharing. */
+    @Benchmark
+    public long saveLoanAndSchedule() {
+        long loanId = dbService.saveLoan(loan);
+        dbService.saveSchedule(loanId, schedule);
+        return loanId;
+    }
+
+    /** A new loan whose terms match a stored schedule, so only the link is written. */
+    @Benchmark
+    public long saveLoanWithSharedSchedule() {
+        long loanId = dbService.saveLoan(loan);
+        dbService.saveSharedSchedule(loanId, "benchmark", schedule);
+        return loanId;
+    }
+
+    /** A new shared schedule written from the columnar form each time. */
+    @Benchmark
+    public long saveColumnarSchedule() {
+        long loanId = dbService.saveLoan(loan);
+        dbService.saveSharedSchedule(loanId, "columnar-" + loanId, columnarSchedule);
+        return loanId;
+    }
+
+    @Benchmark
+    public List<Payment> getSchedule() {
+        return dbService.getSchedule(storedLoanId);
+    }
+
+    @Benchmark
+    public Schedule getColumnarSchedule() {
+        return dbService.getColumnarSchedule(storedLoanId);
+    }
+}
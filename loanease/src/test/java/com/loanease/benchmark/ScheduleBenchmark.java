@@ -0,0 +1,95 @@
+package com.loanease.benchmark;
+
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.ScheduleEngine;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+import com.loanease.service.AmortizationService;
+import com.loanease.service.ConnectionProvider;
+import com.loanease.service.DatabaseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedule generation per engine. {@code generateSchedule} runs through AmortizationService with
+ * the schedule write stubbed out, so it measures the loan lookup plus computation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScheduleBenchmark {
+    @Param({"bigdecimal", "cents"})
+    private String engineName;
+
+    @Param({"60", "360"})
+    private int termInMonths;
+
+    private Path dir;
+    private ConnectionProvider provider;
+    private AmortizationService service;
+    private Loan loan;
+    private long loanId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        dir = BenchmarkSupport.createTempDirectory();
+        provider = BenchmarkSupport.openDatabase(dir);
+        DatabaseService stubbed = new NoWriteDatabaseService(provider);
+        service = new AmortizationService(stubbed, ScheduleEngine.forName(engineName, new FinancialCalculator()));
+        loan = BenchmarkSupport.loan(termInMonths);
+        loanId = service.saveLoan(loan);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        provider.close();
+        BenchmarkSupport.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<Payment> computeSchedule() {
+        return service.computeSchedule(loanId, loan);
+    }
+
+    @Benchmark
+    public Schedule computeColumnarSchedule() {
+        return service.computeColumnarSchedule(loanId, loan);
+    }
+
+    @Benchmark
+    public List<Payment> generateSchedule() {
+        return service.generateSchedule(loanId);
+    }
+
+    /** Keeps loan reads real but drops schedule writes. */
+    private static class NoWriteDatabaseService extends DatabaseService {
+        NoWriteDatabaseService(ConnectionProvider provider) {
+            super(provider);
+        }
+
+        @Override
+        public int saveSharedSchedule(long loanId, String scheduleHash, List<Payment> schedule) {
+            return schedule.size();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.loanease.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time-to-first-schedule of the shaded jar: launches a fresh JVM per run, feeds one loan to
+ * {@code batch} on stdin, and records when the first schedule row arrives on stdout and when the
+ * process exits. Batch mode flushes its output after the first loan, so the first figure is the
+ * time to the first schedule rather than to the final flush on exit. Runs once plain and, if an
+ * AppCDS archive is given, once with it. Prints the median and p90 of both figures.
+ *
+ * <pre>
+ * java -cp target/test-classes:... com.loanease.benchmark.StartupBenchmark \
+ *     target/loanease-1.0-SNAPSHOT.jar [target/loanease.jsa] [runs]
+ * </pre>
+ *
+ * The {@code appcds} profile runs this after building the archive and writes
+ * {@code target/startup-result.txt}, so the figures can be compared from build to build.
+ */
+public final class StartupBenchmark {
+    private static final String LOAN = "250000,0.045,360\n";
+    private static final int WARMUP_RUNS = 2;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: StartupBenchmark JAR [ARCHIVE] [runs]");
+            System.exit(2);
+        }
+        Path jar = Path.of(args[0]);
+        Path archive = args.length > 1 && !args[1].isEmpty() ? Path.of(args[1]) : null;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        Path dir = BenchmarkSupport.createTempDirectory();
+        try {
+            measure("default", List.of(), jar, dir, runs);
+            if (archive != null && Files.exists(archive)) {
+                measure("appcds", List.of("-XX:SharedArchiveFile=" + archive.toAbsolutePath()), jar, dir, runs);
+            }
+        } finally {
+            BenchmarkSupport.deleteRecursively(dir);
+        }
+    }
+
+    private static void measure(String label, List<String> jvmArgs, Path jar, Path dir, int runs) throws Exception {
+        long[] firstRow = new long[runs];
+        long[] exit = new long[runs];
+        for (int i = -WARMUP_RUNS; i < runs; i++) {
+            long[] times = launch(jvmArgs, jar, dir);
+            if (i >= 0) {
+                firstRow[i] = times[0];
+                exit[i] = times[1];
+            }
+        }
+        Arrays.sort(firstRow);
+        Arrays.sort(exit);
+        System.out.printf("%-8s first schedule row ms: p50 %6.1f  p90 %6.1f   exit ms: p50 %6.1f  p90 %6.1f  (%d runs)%n",
+                          label, percentile(firstRow, 0.50) / 1e6, percentile(firstRow, 0.90) / 1e6,
+                          percentile(exit, 0.50) / 1e6, percentile(exit, 0.90) / 1e6, runs);
+    }
+
+    /** Nanoseconds from launch to the first schedule row and to process exit. */
+    private static long[] launch(List<String> jvmArgs, Path jar, Path dir) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", jar.toAbsolutePath().toString(), "batch"));
+        ProcessBuilder builder = new ProcessBuilder(command).directory(dir.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try (OutputStream stdin = process.getOutputStream()) {
+            stdin.write(LOAN.getBytes(StandardCharsets.US_ASCII));
+        }
+        long firstRow = -1;
+        try (BufferedReader stdout = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = stdout.readLine()) != null) {
+                if (firstRow < 0 && line.startsWith("1,1,")) {
+                    firstRow = System.nanoTime() - start;
+                }
+            }
+        }
+        int status = process.waitFor();
+        long exit = System.nanoTime() - start;
+        if (status != 0 || firstRow < 0) {
+            throw new IOException("Batch run failed with status " + status + ": " + command);
+        }
+        return new long[] {firstRow, exit};
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,37 @@
+package com.loanease.calculator;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnnuityFactorTableTest {
+
+    @Test
+    void testFactor_CommonGridIsPrecomputed() {
+        BigDecimal monthly = AnnuityFactorTable.monthlyRate(new BigDecimal("0.0525"));
+        assertTrue(AnnuityFactorTable.isPrecomputed(monthly, 360));
+        assertTrue(AnnuityFactorTable.isPrecomputed(AnnuityFactorTable.monthlyRate(new BigDecimal("0.05")), 60));
+        assertFalse(AnnuityFactorTable.isPrecomputed(monthly, 361));
+        assertFalse(AnnuityFactorTable.isPrecomputed(AnnuityFactorTable.monthlyRate(new BigDecimal("0.0526")), 360));
+        assertEquals(AnnuityFactorTable.compute(monthly, 360), AnnuityFactorTable.factor(monthly, 360));
+    }
+
+    @Test
+    void testFactor_WithinDocumentedErrorBound() {
+        Random random = new Random(34);
+        MathContext reference = new MathContext(120);
+        for (int i = 0; i < 2_000; i++) {
+            BigDecimal monthly = AnnuityFactorTable.monthlyRate(
+                    BigDecimal.valueOf(1 + random.nextInt(300_000), 6)); // Up to 30% a year
+            int periods = 1 + random.nextInt(600);
+            BigDecimal growth = BigDecimal.ONE.add(monthly).pow(periods); // Exact
+            BigDecimal exact = monthly.multiply(growth).divide(growth.subtract(BigDecimal.ONE), reference);
+            BigDecimal factor = AnnuityFactorTable.factor(monthly, periods);
+            double relativeError = factor.subtract(exact).abs().divide(exact, MathContext.DECIMAL64).doubleValue();
+            assertTrue(relativeError <= AnnuityFactorTable.relativeErrorBound(monthly, factor),
+                       monthly + " x " + periods + ": " + relativeError);
+        }
+    }
+}
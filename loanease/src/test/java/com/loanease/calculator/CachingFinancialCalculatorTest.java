@@ -0,0 +1,49 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingFinancialCalculatorTest {
+    private final FinancialCalculator reference = new FinancialCalculator();
+
+    @Test
+    void testComputePMT_NormalizesEquivalentInputs() {
+        CachingFinancialCalculator calculator = new CachingFinancialCalculator(100);
+        BigDecimal first = calculator.computePMT(new BigDecimal("10000"), new BigDecimal("0.05"), 60, "Monthly");
+        BigDecimal second = calculator.computePMT(new BigDecimal("10000.00"), new BigDecimal("0.0500"), 60, "MONTHLY");
+        assertEquals(new BigDecimal("188.71"), first);
+        assertEquals(first, second);
+        assertEquals(1, calculator.getStats().getHits());
+        assertEquals(1, calculator.getStats().getMisses());
+    }
+
+    @Test
+    void testComputePMT_MatchesUncachedCalculator() {
+        CachingFinancialCalculator calculator = new CachingFinancialCalculator(16);
+        Random random = new Random(8);
+        for (int i = 0; i < 500; i++) {
+            Loan loan = LongCentsScheduleEngineTest.randomLoan(random);
+            BigDecimal expected = reference.computePMT(loan.getPrincipal(), loan.getAnnualInterestRate(),
+                                                       loan.getTermInMonths(), loan.getPaymentFrequency());
+            assertEquals(expected, calculator.computePMT(loan.getPrincipal(), loan.getAnnualInterestRate(),
+                                                         loan.getTermInMonths(), loan.getPaymentFrequency()));
+        }
+        assertTrue(calculator.getStats().getEvictions() > 0);
+        assertTrue(calculator.getStats().getSize() <= 16);
+    }
+
+    @Test
+    void testComputePMT_InvalidInputsStillRejected() {
+        CachingFinancialCalculator calculator = new CachingFinancialCalculator(10);
+        assertThrows(IllegalArgumentException.class,
+                     () -> calculator.computePMT(null, new BigDecimal("0.05"), 12, "Monthly"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> calculator.computePMT(new BigDecimal("-1"), new BigDecimal("0.05"), 12, "Monthly"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> calculator.computePMT(new BigDecimal("1000"), new BigDecimal("0.05"), 12, "Weekly"));
+        assertEquals(0, calculator.getStats().getSize());
+    }
+}
@@ -0,0 +1,100 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.LoanEvent;
+import com.loanease.model.Schedule;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventScheduleEngineTest {
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final LongCentsScheduleEngine cents = new LongCentsScheduleEngine(calculator);
+    private final EventScheduleEngine engine = new EventScheduleEngine(calculator);
+
+    @Test
+    void testGenerate_WithoutEventsMatchesCentsEngine() {
+        Random random = new Random(20);
+        for (int i = 0; i < 500; i++) {
+            Loan loan = LongCentsScheduleEngineTest.randomLoan(random);
+            if (!LongCentsScheduleEngine.supports(loan)) {
+                continue;
+            }
+            assertSameRows(cents.generateColumnar(0, loan), generate(loan, List.of()));
+        }
+    }
+
+    @Test
+    void testResume_MatchesSuffixOfFullSchedule() {
+        Loan loan = new Loan(new BigDecimal("300000.00"), new BigDecimal("0.0350"), 360, "Monthly",
+                             new BigDecimal("50.00"));
+        List<LoanEvent> events = List.of(LoanEvent.rateChange(61, new BigDecimal("0.0625")),
+                                         LoanEvent.rateChange(121, new BigDecimal("0.0475")));
+        Schedule full = generate(loan, events);
+        Schedule base = cents.generateColumnar(0, loan);
+        // Rows before the first reset are untouched, the payment changes at it
+        for (int i = 0; i < 60; i++) {
+            assertEquals(base.getRemainingBalanceCents(i), full.getRemainingBalanceCents(i));
+        }
+        assertTrue(full.getInterestCents(60) > base.getInterestCents(60));
+        assertEquals(0, full.getRemainingBalanceCents(full.size() - 1));
+        assertTrue(full.size() <= 360);
+
+        for (int from : new int[] {61, 121}) {
+            Schedule suffix = new Schedule(0, 0);
+            int last = engine.resume(loan, events, from, full.getRemainingBalanceCents(from - 2), suffix::add);
+            assertEquals(full.getPeriod(full.size() - 1), last);
+            assertEquals(from, suffix.getPeriod(0));
+            for (int i = 0; i < suffix.size(); i++) {
+                assertEquals(full.getPrincipalCents(from - 1 + i), suffix.getPrincipalCents(i));
+                assertEquals(full.getRemainingBalanceCents(from - 1 + i), suffix.getRemainingBalanceCents(i));
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.resume(loan, events, 62, full.getRemainingBalanceCents(60), (p, a, b, c) -> { }));
+    }
+
+    @Test
+    void testPrepayment_KeepsPaymentAndShortensTerm() {
+        Loan loan = new Loan(new BigDecimal("200000.00"), new BigDecimal("0.0450"), 300, "Monthly", BigDecimal.ZERO);
+        List<LoanEvent> events = List.of(LoanEvent.rateChange(37, new BigDecimal("0.0550")),
+                                         LoanEvent.prepayment(48, new BigDecimal("20000.00")),
+                                         LoanEvent.prepayment(60, new BigDecimal("20000.00")));
+        Schedule base = generate(loan, events.subList(0, 1));
+        Schedule full = generate(loan, events);
+        assertTrue(full.size() < base.size());
+        assertEquals(base.getPrincipalCents(47) + 2_000_000, full.getPrincipalCents(47));
+        // The regular payment after the prepayment is the one set at the rate change
+        assertEquals(base.getPrincipalCents(48) + base.getInterestCents(48),
+                     full.getPrincipalCents(48) + full.getInterestCents(48));
+        assertEquals(0, full.getRemainingBalanceCents(full.size() - 1));
+
+        assertEquals(37, EventScheduleEngine.paymentResetPeriod(events, 60));
+        long payment = engine.paymentCents(loan, events, 37, full.getRemainingBalanceCents(35));
+        Schedule suffix = new Schedule(0, 0);
+        engine.resume(loan, events, 60, full.getRemainingBalanceCents(58), payment, suffix::add);
+        assertEquals(full.size() - 59, suffix.size());
+        for (int i = 0; i < suffix.size(); i++) {
+            assertEquals(full.getPrincipalCents(59 + i), suffix.getPrincipalCents(i));
+            assertEquals(full.getRemainingBalanceCents(59 + i), suffix.getRemainingBalanceCents(i));
+        }
+    }
+
+    private Schedule generate(Loan loan, List<LoanEvent> events) {
+        Schedule schedule = new Schedule(0, loan.getTermInMonths());
+        engine.generate(loan, events, schedule::add);
+        return schedule;
+    }
+
+    private static void assertSameRows(Schedule expected, Schedule actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getPeriod(i), actual.getPeriod(i));
+            assertEquals(expected.getPrincipalCents(i), actual.getPrincipalCents(i));
+            assertEquals(expected.getInterestCents(i), actual.getInterestCents(i));
+            assertEquals(expected.getRemainingBalanceCents(i), actual.getRemainingBalanceCents(i));
+        }
+    }
+}
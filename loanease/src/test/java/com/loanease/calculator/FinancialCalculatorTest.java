@@ -3,6 +3,7 @@ package com.loanease.calculator;
 import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class FinancialCalculatorTest {
@@ -80,4 +81,42 @@ public class FinancialCalculatorTest {
         BigDecimal expected = new BigDecimal("123.46");
         assertEquals(expected, calculator.roundCurrency(value));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testComputePMT_MatchesExactOnRandomInputs() {
+        Random random = new Random(15);
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal principal = BigDecimal.valueOf(1 + (long) (random.nextDouble() * 100_000_000_000L), 2);
+            int rateScale = 2 + random.nextInt(6);
+            BigDecimal rate = BigDecimal.valueOf((long) (random.nextDouble() * 0.3 * Math.pow(10, rateScale)), rateScale);
+            int term = 1 + random.nextInt(480);
+            assertEquals(calculator.computePMTExact(principal, rate, term, "Monthly"),
+                         calculator.computePMT(principal, rate, term, "Monthly"),
+                         principal + " @ " + rate + " x " + term);
+        }
+    }
+
+    @Test
+    void testComputePMT_HalfCentFallsBackToExact() {
+        // 2.5% a month is on the factor grid for 12 periods, so this takes the table path. With
+        // 1 + r = 41/40 and P = 0.2 (41^12 - 40^12), the exact payment is 0.005 * 41^12, which ends
+        // in a half cent; only the exact fallback is guaranteed to round it up.
+        BigDecimal monthlyRate = new BigDecimal("0.30").divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
+        assertTrue(AnnuityFactorTable.isPrecomputed(monthlyRate, 12));
+        BigDecimal principal = new BigDecimal("1157254860073237216.2");
+        assertEquals(new BigDecimal("112817451501830930.41"), calculator.computePMT(principal, new BigDecimal("0.30"), 12, "Monthly"));
+        assertEquals(calculator.computePMTExact(principal, new BigDecimal("0.30"), 12, "Monthly"),
+                     calculator.computePMT(principal, new BigDecimal("0.30"), 12, "Monthly"));
+        BigDecimal[][] extremes = {
+            {new BigDecimal("999999999999.99"), new BigDecimal("0.0000001")},
+            {new BigDecimal("0.01"), new BigDecimal("0.99")},
+            {new BigDecimal("250000"), new BigDecimal("2.5")}
+        };
+        for (BigDecimal[] inputs : extremes) {
+            for (int term : new int[] {1, 2, 360, 1200}) {
+                assertEquals(calculator.computePMTExact(inputs[0], inputs[1], term, "Monthly"),
+                             calculator.computePMT(inputs[0], inputs[1], term, "Monthly"));
+            }
+        }
+    }
+}
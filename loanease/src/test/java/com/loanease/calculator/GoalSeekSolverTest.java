@@ -0,0 +1,92 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.ScenarioSummary;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GoalSeekSolverTest {
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final BigDecimalScheduleEngine reference = new BigDecimalScheduleEngine(calculator);
+    private final GoalSeekSolver solver = new GoalSeekSolver(calculator);
+    private final Loan mortgage = new Loan(new BigDecimal("300000.00"), new BigDecimal("0.0600"), 360,
+                                           "Monthly", BigDecimal.ZERO);
+
+    @Test
+    void testSolveExtraPayment_MinimalForTenYearPayoff() {
+        ScenarioSummary solution = solver.solveExtraPayment(mortgage, GoalSeekSolver.Goal.payoffBy(120));
+        BigDecimal extra = solution.getExtraPayment();
+        assertTrue(solution.getPayoffPeriod() <= 120);
+        assertEquals(solution.getPayoffPeriod(), scheduleWith(new BigDecimal("0.0600"), extra).size());
+        // One cent less must miss the target
+        assertTrue(scheduleWith(new BigDecimal("0.0600"), extra.subtract(new BigDecimal("0.01"))).size() > 120);
+        assertTrue(solution.getInterestSavedCents() > 0);
+    }
+
+    @Test
+    void testSolveExtraPayment_InterestCap() {
+        BigDecimal cap = new BigDecimal("150000.00");
+        ScenarioSummary solution = solver.solveExtraPayment(mortgage, GoalSeekSolver.Goal.interestAtMost(cap));
+        assertTrue(solution.getTotalInterest().compareTo(cap) <= 0);
+        BigDecimal lessExtra = solution.getExtraPayment().subtract(new BigDecimal("0.01"));
+        assertTrue(totalInterest(scheduleWith(new BigDecimal("0.0600"), lessExtra)).compareTo(cap) > 0);
+        assertEquals(0, solver.solveExtraPayment(mortgage, GoalSeekSolver.Goal.payoffBy(360))
+                .getExtraPayment().signum());
+    }
+
+    @Test
+    void testSolveMaximumRate_InterestCap() {
+        BigDecimal cap = new BigDecimal("200000.00");
+        ScenarioSummary solution = solver.solveMaximumRate(mortgage, GoalSeekSolver.Goal.interestAtMost(cap));
+        BigDecimal rate = solution.getAnnualInterestRate();
+        assertEquals(4, rate.scale());
+        assertTrue(totalInterest(scheduleWith(rate, BigDecimal.ZERO)).compareTo(cap) <= 0);
+        assertTrue(totalInterest(scheduleWith(rate.add(new BigDecimal("0.0001")), BigDecimal.ZERO)).compareTo(cap) > 0);
+    }
+
+    @Test
+    void testSolveMaximumRate_PayoffGoalWithExtraPayment() {
+        // A higher rate raises the regular payment, so with the extra on top the loan pays off sooner
+        Loan loan = new Loan(new BigDecimal("10000.00"), new BigDecimal("0.0500"), 120, "Monthly", new BigDecimal("46.50"));
+        assertEquals(78, payoffAt(loan, new BigDecimal("0.0000")));
+        assertEquals(77, payoffAt(loan, new BigDecimal("0.0200")));
+        assertEquals(76, payoffAt(loan, new BigDecimal("0.1000")));
+
+        for (int target : new int[] {78, 77, 76}) {
+            BigDecimal rate = solver.solveMaximumRate(loan, GoalSeekSolver.Goal.payoffBy(target)).getAnnualInterestRate();
+            assertTrue(payoffAt(loan, rate) <= target, "target " + target);
+            assertTrue(rate.compareTo(new BigDecimal("0.1000")) >= 0, "target " + target);
+            if (rate.compareTo(BigDecimal.ONE) < 0) {
+                assertTrue(payoffAt(loan, rate.add(new BigDecimal("0.0001"))) > target, "target " + target);
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                     () -> solver.solveMaximumRate(loan, GoalSeekSolver.Goal.payoffBy(10)));
+    }
+
+    @Test
+    void testSolve_UnreachableGoalsRejected() {
+        // Without an extra payment the loan always runs its full term, whatever the rate
+        assertThrows(IllegalArgumentException.class,
+                     () -> solver.solveMaximumRate(mortgage, GoalSeekSolver.Goal.payoffBy(120)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> solver.solveExtraPayment(mortgage, GoalSeekSolver.Goal.interestAtMost(new BigDecimal("100"))));
+        assertThrows(IllegalArgumentException.class, () -> new GoalSeekSolver.Goal(0, null));
+    }
+
+    private int payoffAt(Loan loan, BigDecimal rate) {
+        return reference.generateSchedule(0, new Loan(loan.getPrincipal(), rate, loan.getTermInMonths(),
+                                                      "Monthly", loan.getExtraPayment())).size();
+    }
+
+    private List<Payment> scheduleWith(BigDecimal rate, BigDecimal extra) {
+        return reference.generateSchedule(0, new Loan(mortgage.getPrincipal(), rate, 360, "Monthly", extra));
+    }
+
+    private static BigDecimal totalInterest(List<Payment> schedule) {
+        return schedule.stream().map(Payment::getInterestPortion).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,117 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongCentsScheduleEngineTest {
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final BigDecimalScheduleEngine reference = new BigDecimalScheduleEngine(calculator);
+    private final LongCentsScheduleEngine engine = new LongCentsScheduleEngine(calculator);
+
+    @Test
+    void testGenerateSchedule_MatchesReferenceOnKnownLoan() {
+        Loan loan = new Loan(new BigDecimal("10000.00"), new BigDecimal("0.0500"), 12, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = engine.generateSchedule(7L, loan);
+        assertEquals(12, schedule.size());
+        assertEquals(new BigDecimal("814.40"), schedule.get(0).getPrincipalPortion());
+        assertEquals(new BigDecimal("41.67"), schedule.get(0).getInterestPortion());
+        assertEquals(new BigDecimal("0.00"), schedule.get(11).getRemainingBalance());
+        assertEquals(7L, schedule.get(0).getLoanId());
+        assertSchedulesEqual(reference.generateSchedule(7L, loan), schedule, loan);
+    }
+
+    @Test
+    void testGenerateSchedule_DifferentialRandomLoans() {
+        Random random = new Random(375);
+        for (int i = 0; i < 2000; i++) {
+            Loan loan = randomLoan(random);
+            assertSchedulesEqual(reference.generateSchedule(i, loan), engine.generateSchedule(i, loan), loan);
+        }
+    }
+
+    @Test
+    void testGenerateSchedule_ZeroRateAndEarlyPayoff() {
+        Loan zeroRate = new Loan(new BigDecimal("10000"), BigDecimal.ZERO, 12, "Monthly", BigDecimal.ZERO);
+        assertSchedulesEqual(reference.generateSchedule(1, zeroRate), engine.generateSchedule(1, zeroRate), zeroRate);
+
+        Loan earlyPayoff = new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 60, "Monthly", new BigDecimal("1000"));
+        List<Payment> schedule = engine.generateSchedule(1, earlyPayoff);
+        assertTrue(schedule.size() < 60);
+        assertSchedulesEqual(reference.generateSchedule(1, earlyPayoff), schedule, earlyPayoff);
+    }
+
+    @Test
+    void testGenerateSchedule_FractionalCentPrincipalFallsBack() {
+        Loan loan = new Loan(new BigDecimal("10000.555"), new BigDecimal("0.05"), 24, "Monthly", BigDecimal.ZERO);
+        assertSchedulesEqual(reference.generateSchedule(1, loan), engine.generateSchedule(1, loan), loan);
+    }
+
+    @Test
+    void testInterestCents_LargeBalanceDoesNotOverflow() {
+        long balance = 900_000_000_000_00L; // $900 billion
+        long rate = LongCentsScheduleEngine.monthlyRateFixed(new BigDecimal("0.24"));
+        BigDecimal expected = BigDecimal.valueOf(balance, 2).multiply(new BigDecimal("0.0200000000"))
+                .setScale(2, java.math.RoundingMode.HALF_UP);
+        assertEquals(expected.unscaledValue().longValueExact(), LongCentsScheduleEngine.interestCents(balance, rate));
+    }
+
+    @Test
+    void testGenerate_InvalidLoanRejected() {
+        Loan weekly = new Loan(new BigDecimal("1000"), new BigDecimal("0.05"), 12, "Weekly", BigDecimal.ZERO);
+        assertThrows(IllegalArgumentException.class, () -> engine.generateSchedule(1, weekly));
+    }
+
+    @Test
+    void testStreamSchedule_MatchesListForBothEngines() {
+        Random random = new Random(6);
+        for (int i = 0; i < 200; i++) {
+            Loan loan = randomLoan(random);
+            List<Payment> expected = reference.generateSchedule(i, loan);
+            assertSchedulesEqual(expected, reference.streamSchedule(i, loan).collect(Collectors.toList()), loan);
+            assertSchedulesEqual(expected, engine.streamSchedule(i, loan).collect(Collectors.toList()), loan);
+        }
+    }
+
+    @Test
+    void testStreamSchedule_ComputesOnlyRequestedRows() {
+        Loan loan = new Loan(new BigDecimal("250000"), new BigDecimal("0.05"), 360, "Monthly", BigDecimal.ZERO);
+        Iterator<Payment> rows = engine.iterateSchedule(1L, loan);
+        assertEquals(1, rows.next().getPeriod());
+        assertEquals(2, rows.next().getPeriod());
+        assertEquals(reference.generateSchedule(1L, loan).get(2).getRemainingBalance(),
+                     rows.next().getRemainingBalance());
+        assertEquals(5, engine.streamSchedule(1L, loan).limit(5).count());
+    }
+
+    static Loan randomLoan(Random random) {
+        BigDecimal principal = BigDecimal.valueOf(10_000 + (long) (random.nextDouble() * 200_000_000L), 2);
+        int rateScale = random.nextBoolean() ? 4 : 7;
+        BigDecimal rate = BigDecimal.valueOf((long) (random.nextDouble() * 0.25 * Math.pow(10, rateScale)), rateScale);
+        int term = 1 + random.nextInt(480);
+        BigDecimal extra = random.nextInt(4) == 0
+                ? BigDecimal.valueOf((long) (random.nextDouble() * 100_000), 2) : BigDecimal.ZERO;
+        return new Loan(principal, rate, term, "Monthly", extra);
+    }
+
+    static void assertSchedulesEqual(List<Payment> expected, List<Payment> actual, Loan loan) {
+        String context = loan.getPrincipal() + " @ " + loan.getAnnualInterestRate() + " x " + loan.getTermInMonths()
+                + " + " + loan.getExtraPayment();
+        assertEquals(expected.size(), actual.size(), context);
+        for (int i = 0; i < expected.size(); i++) {
+            Payment e = expected.get(i);
+            Payment a = actual.get(i);
+            assertEquals(e.getLoanId(), a.getLoanId(), context);
+            assertEquals(e.getPeriod(), a.getPeriod(), context);
+            assertEquals(e.getPrincipalPortion(), a.getPrincipalPortion(), context + " period " + e.getPeriod());
+            assertEquals(e.getInterestPortion(), a.getInterestPortion(), context + " period " + e.getPeriod());
+            assertEquals(e.getRemainingBalance(), a.getRemainingBalance(), context + " period " + e.getPeriod());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.PortfolioCashFlow;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PortfolioAggregatorTest {
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final BigDecimalScheduleEngine reference = new BigDecimalScheduleEngine(calculator);
+
+    @Test
+    void testAggregate_MatchesSummedSchedules() {
+        Random random = new Random(19);
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            loans.add(LongCentsScheduleEngineTest.randomLoan(random));
+        }
+        loans.add(new Loan(new BigDecimal("1000.125"), new BigDecimal("0.05"), 12, "Monthly", BigDecimal.ZERO));
+
+        int periods = loans.stream().mapToInt(Loan::getTermInMonths).max().orElse(0);
+        long[] principal = new long[periods + 1];
+        long[] interest = new long[periods + 1];
+        long[] balance = new long[periods + 1];
+        int[] active = new int[periods + 1];
+        int lastPeriod = 0;
+        for (Loan loan : loans) {
+            for (Payment p : reference.generateSchedule(0, loan)) {
+                principal[p.getPeriod()] += cents(p.getPrincipalPortion());
+                interest[p.getPeriod()] += cents(p.getInterestPortion());
+                balance[p.getPeriod()] += cents(p.getRemainingBalance());
+                active[p.getPeriod()]++;
+                lastPeriod = Math.max(lastPeriod, p.getPeriod());
+            }
+        }
+
+        PortfolioCashFlow flows = new PortfolioAggregator(calculator).aggregate(loans);
+        assertEquals(loans.size(), flows.getLoanCount());
+        assertEquals(lastPeriod, flows.getPeriodCount());
+        for (int period = 1; period <= lastPeriod; period++) {
+            assertEquals(principal[period], flows.getPrincipalCents(period), "period " + period);
+            assertEquals(interest[period], flows.getInterestCents(period), "period " + period);
+            assertEquals(balance[period], flows.getOutstandingBalanceCents(period), "period " + period);
+            assertEquals(active[period], flows.getActiveLoans(period), "period " + period);
+        }
+        assertEquals(loans.size(), flows.getActiveLoans(1));
+    }
+
+    @Test
+    void testAggregate_SameResultOnOneThread() {
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            loans.add(new Loan(BigDecimal.valueOf(50_000 + i * 10L), new BigDecimal("0.045"), 120 + i % 240,
+                               "Monthly", i % 7 == 0 ? new BigDecimal("250") : BigDecimal.ZERO));
+        }
+        PortfolioCashFlow parallel = new PortfolioAggregator(calculator).aggregate(loans);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            PortfolioCashFlow sequential = new PortfolioAggregator(calculator, single).aggregate(loans);
+            assertEquals(sequential.getPeriodCount(), parallel.getPeriodCount());
+            for (int period = 1; period <= parallel.getPeriodCount(); period++) {
+                assertEquals(sequential.getInterestCents(period), parallel.getInterestCents(period));
+                assertEquals(sequential.getOutstandingBalanceCents(period), parallel.getOutstandingBalanceCents(period));
+            }
+        } finally {
+            single.shutdown();
+        }
+        long principal = loans.stream().mapToLong(loan -> cents(loan.getPrincipal())).sum();
+        assertEquals(principal, parallel.getTotalPrincipalCents());
+        assertEquals(0, parallel.getOutstandingBalanceCents(parallel.getPeriodCount()));
+        assertEquals(0, new PortfolioAggregator(calculator).aggregate(List.of()).getPeriodCount());
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,69 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.ScenarioGrid;
+import com.loanease.model.ScenarioSummary;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScenarioSweepTest {
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final BigDecimalScheduleEngine reference = new BigDecimalScheduleEngine(calculator);
+    private final ScenarioSweep sweep = new ScenarioSweep(calculator);
+
+    @Test
+    void testSweep_CellsMatchFullSchedules() {
+        Loan loan = new Loan(new BigDecimal("250000.00"), new BigDecimal("0.0500"), 360, "Monthly", BigDecimal.ZERO);
+        List<BigDecimal> rates = ScenarioSweep.steps(new BigDecimal("0.0300"), new BigDecimal("0.0795"),
+                                                     new BigDecimal("0.0005"));
+        List<BigDecimal> extras = ScenarioSweep.steps(BigDecimal.ZERO, new BigDecimal("900"), new BigDecimal("100"));
+        assertEquals(100, rates.size());
+        assertEquals(10, extras.size());
+
+        ScenarioGrid grid = sweep.sweep(loan, rates, extras);
+
+        int[][] probes = {{0, 0}, {40, 0}, {40, 5}, {99, 9}, {17, 3}};
+        for (int[] probe : probes) {
+            Loan scenario = new Loan(loan.getPrincipal(), rates.get(probe[0]), 360, "Monthly", extras.get(probe[1]));
+            List<Payment> schedule = reference.generateSchedule(0, scenario);
+            assertEquals(schedule.size(), grid.getPayoffPeriod(probe[0], probe[1]));
+            assertEquals(totalInterest(schedule), grid.getSummary(probe[0], probe[1]).getTotalInterest());
+        }
+        assertEquals(totalInterest(reference.generateSchedule(0, loan)), grid.getBase().getTotalInterest());
+        // Rate 5% with no extra payment is the base loan itself
+        assertEquals(0, grid.getInterestSavedCents(40, 0));
+        assertTrue(grid.getInterestSavedCents(40, 9) > 0);
+        assertTrue(grid.getInterestSavedCents(99, 0) < 0);
+    }
+
+    @Test
+    void testSweep_FractionalCentExtraPaymentFallsBack() {
+        Loan loan = new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 24, "Monthly", BigDecimal.ZERO);
+        BigDecimal extra = new BigDecimal("12.345");
+        ScenarioGrid grid = sweep.sweep(loan, List.of(new BigDecimal("0.06")), List.of(extra));
+        List<Payment> schedule = reference.generateSchedule(0,
+                new Loan(loan.getPrincipal(), new BigDecimal("0.06"), 24, "Monthly", extra));
+        ScenarioSummary summary = grid.getSummary(0, 0);
+        assertEquals(schedule.size(), summary.getPayoffPeriod());
+        assertEquals(totalInterest(schedule), summary.getTotalInterest());
+    }
+
+    @Test
+    void testSweep_InvalidInputRejected() {
+        Loan loan = new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 24, "Monthly", BigDecimal.ZERO);
+        assertThrows(IllegalArgumentException.class, () -> sweep.sweep(loan, List.of(), List.of(BigDecimal.ZERO)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sweep.sweep(loan, List.of(new BigDecimal("-0.01")), List.of(BigDecimal.ZERO)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sweep.sweep(loan, List.of(new BigDecimal("0.05")), List.of(new BigDecimal("-1"))));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ScenarioSweep.steps(BigDecimal.ONE, BigDecimal.TEN, BigDecimal.ZERO));
+    }
+
+    private static BigDecimal totalInterest(List<Payment> schedule) {
+        return schedule.stream().map(Payment::getInterestPortion).reduce(BigDecimal.ZERO.setScale(2), BigDecimal::add);
+    }
+}
@@ -0,0 +1,76 @@
+package com.loanease.calculator;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleViewTest {
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final BigDecimalScheduleEngine reference = new BigDecimalScheduleEngine(calculator);
+
+    @Test
+    void testGetPayment_Month240OfMortgage() {
+        Loan loan = new Loan(new BigDecimal("300000.00"), new BigDecimal("0.0475"), 360, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = reference.generateSchedule(3L, loan);
+        ScheduleView view = new ScheduleView(3L, loan, calculator);
+        Payment expected = schedule.get(239);
+        Payment actual = view.getPayment(240);
+        assertEquals(240, actual.getPeriod());
+        assertEquals(3L, actual.getLoanId());
+        assertEquals(expected.getPrincipalPortion(), actual.getPrincipalPortion());
+        assertEquals(expected.getInterestPortion(), actual.getInterestPortion());
+        assertEquals(expected.getRemainingBalance(), view.getRemainingBalance(240));
+        assertEquals(loan.getPrincipal(), view.getRemainingBalance(0));
+    }
+
+    @Test
+    void testGetPayment_RandomAccessMatchesGeneratedSchedule() {
+        Random random = new Random(240);
+        for (int i = 0; i < 300; i++) {
+            Loan loan = LongCentsScheduleEngineTest.randomLoan(random);
+            List<Payment> schedule = reference.generateSchedule(i, loan);
+            ScheduleView view = new ScheduleView(i, loan, calculator);
+            // Query out of order so checkpoints are built lazily and reused
+            for (int k = 0; k < 10; k++) {
+                int period = 1 + random.nextInt(schedule.size());
+                Payment expected = schedule.get(period - 1);
+                Payment actual = view.getPayment(period);
+                assertEquals(expected.getPrincipalPortion(), actual.getPrincipalPortion());
+                assertEquals(expected.getInterestPortion(), actual.getInterestPortion());
+                assertEquals(expected.getRemainingBalance(), actual.getRemainingBalance());
+            }
+            assertEquals(schedule.size(), view.getPeriodCount());
+        }
+    }
+
+    @Test
+    void testGetPayment_BeyondEarlyPayoffRejected() {
+        Loan loan = new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 120, "Monthly", new BigDecimal("2000"));
+        ScheduleView view = new ScheduleView(1L, loan, calculator);
+        int payoff = reference.generateSchedule(1L, loan).size();
+        assertEquals(payoff, view.getPeriodCount());
+        assertEquals(new BigDecimal("0.00"), view.getPayment(payoff).getRemainingBalance());
+        assertThrows(IllegalArgumentException.class, () -> view.getPayment(payoff + 1));
+        assertThrows(IllegalArgumentException.class, () -> view.getPayment(100));
+    }
+
+    @Test
+    void testGetPayment_OutOfRangeRejected() {
+        Loan loan = new Loan(new BigDecimal("5000"), new BigDecimal("0.06"), 6, "Monthly", BigDecimal.ZERO);
+        ScheduleView view = new ScheduleView(1L, loan, calculator);
+        assertThrows(IllegalArgumentException.class, () -> view.getPayment(0));
+        assertThrows(IllegalArgumentException.class, () -> view.getPayment(7));
+    }
+
+    @Test
+    void testGetPayment_FractionalCentLoan() {
+        Loan loan = new Loan(new BigDecimal("5000.005"), new BigDecimal("0.06"), 48, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = reference.generateSchedule(1L, loan);
+        ScheduleView view = new ScheduleView(1L, loan, calculator);
+        assertEquals(schedule.get(40).getRemainingBalance(), view.getPayment(41).getRemainingBalance());
+    }
+}
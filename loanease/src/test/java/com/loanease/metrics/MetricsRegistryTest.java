@@ -0,0 +1,65 @@
+package com.loanease.metrics;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Test
+    void testHistogram_PercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.5));
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            histogram.record(nanos * 1_000_000);
+        }
+        long p50 = histogram.percentile(0.50);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(p50 >= 500_000_000 && p50 <= 500_000_000 * 1.125, "p50 " + p50);
+        assertTrue(p99 >= 990_000_000 && p99 <= 990_000_000 * 1.125, "p99 " + p99);
+        assertEquals(1_000_000_000, histogram.percentile(1.0), 1_000_000_000 * 0.125);
+        for (long value : new long[] {0, 7, 8, 15, 16, 1000, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.upperBound(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < value);
+        }
+    }
+
+    @Test
+    void testSample_CountsRowsAndErrors() {
+        try (OperationSample sample = registry.begin("save")) {
+            sample.complete(120);
+        }
+        try (OperationSample sample = registry.begin("save")) {
+            sample.complete(240);
+        }
+        try (OperationSample ignored = registry.begin("save")) {
+            // closed without complete(), as when the operation throws
+        }
+        OperationMetrics save = registry.get("save");
+        assertEquals(3, save.getCount());
+        assertEquals(1, save.getErrorCount());
+        assertEquals(360, save.getRowCount());
+        assertTrue(save.getMaxNanos() > 0);
+        assertTrue(save.getPercentileNanos(0.99) >= save.getPercentileNanos(0.50));
+        assertTrue(save.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    void testReport_ListsCalledOperationsAndReset() {
+        registry.get("unused");
+        try (OperationSample sample = registry.begin("export")) {
+            sample.complete(12);
+        }
+        String report = registry.report();
+        assertTrue(report.contains("export"));
+        assertFalse(report.contains("unused"));
+        assertEquals(2, registry.getOperations().size());
+
+        OperationMetrics export = registry.get("export");
+        registry.reset();
+        assertSame(export, registry.get("export"));
+        assertEquals(0, export.getCount());
+        assertEquals(0, export.getPercentileNanos(0.5));
+    }
+}
@@ -0,0 +1,76 @@
+package com.loanease.model;
+
+import com.loanease.calculator.BigDecimalScheduleEngine;
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.util.ExportUtil;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleTest {
+    private final FinancialCalculator calculator = new FinancialCalculator();
+    private final Loan loan = new Loan(new BigDecimal("250000"), new BigDecimal("0.0525"), 360, "Monthly", BigDecimal.ZERO);
+
+    @Test
+    void testGenerateColumnar_MatchesPaymentList() {
+        List<Payment> expected = new BigDecimalScheduleEngine(calculator).generateSchedule(9L, loan);
+        Schedule cents = new LongCentsScheduleEngine(calculator).generateColumnar(9L, loan);
+        Schedule generic = new BigDecimalScheduleEngine(calculator).generateColumnar(9L, loan);
+        assertEquals(expected.size(), cents.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertPaymentEquals(expected.get(i), cents.asList().get(i));
+            assertPaymentEquals(expected.get(i), generic.getPayment(i));
+        }
+        assertEquals(25000000L, cents.getTotalPrincipalCents());
+        assertEquals(0L, cents.getRemainingBalanceCents(cents.size() - 1));
+    }
+
+    @Test
+    void testFromPayments_RoundTrip() {
+        List<Payment> payments = List.of(
+            new Payment(4L, 1, new BigDecimal("800.00"), new BigDecimal("41.67"), new BigDecimal("9200.00")),
+            new Payment(4L, 2, new BigDecimal("803.33"), new BigDecimal("38.34"), new BigDecimal("8396.67")));
+        Schedule schedule = Schedule.fromPayments(4L, payments);
+        assertEquals(2, schedule.size());
+        assertEquals(8001L, schedule.getTotalInterestCents());
+        assertEquals(839667L, schedule.getRemainingBalanceCents(1));
+        assertPaymentEquals(payments.get(1), schedule.asList().get(1));
+    }
+
+    @Test
+    void testAdd_GrowsBeyondInitialCapacity() {
+        Schedule schedule = new Schedule(1L, 1);
+        for (int period = 1; period <= 100; period++) {
+            schedule.add(period, 100, 10, 10000 - period * 100L);
+        }
+        assertEquals(100, schedule.size());
+        assertEquals(100, schedule.getPeriod(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> schedule.getPeriod(100));
+    }
+
+    @Test
+    void testAsList_IsReadOnlyAndExportable() throws IOException {
+        Schedule schedule = new LongCentsScheduleEngine(calculator).generateColumnar(1L, loan);
+        List<Payment> view = schedule.asList();
+        assertThrows(UnsupportedOperationException.class, () -> view.add(view.get(0)));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+
+        new ExportUtil().exportToCSV(view, "columnar_schedule.csv");
+        File file = new File("columnar_schedule.csv");
+        assertEquals(schedule.size() + 2, Files.readAllLines(file.toPath()).size());
+        file.delete();
+    }
+
+    private static void assertPaymentEquals(Payment expected, Payment actual) {
+        assertEquals(expected.getLoanId(), actual.getLoanId());
+        assertEquals(expected.getPeriod(), actual.getPeriod());
+        assertEquals(expected.getPrincipalPortion(), actual.getPrincipalPortion());
+        assertEquals(expected.getInterestPortion(), actual.getInterestPortion());
+        assertEquals(expected.getRemainingBalance(), actual.getRemainingBalance());
+    }
+}
@@ -0,0 +1,146 @@
+package com.loanease.server;
+
+import com.loanease.service.AmortizationService;
+import com.loanease.service.ConnectionProvider;
+import com.loanease.service.DatabaseConfig;
+import com.loanease.service.DatabaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoanEaseServerTest {
+    private ConnectionProvider provider;
+    private AmortizationService service;
+    private LoanEaseServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+        provider = new ConnectionProvider(new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("server.db")));
+        service = new AmortizationService(new DatabaseService(provider));
+        server = new LoanEaseServer(service, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        provider.close();
+    }
+
+    @Test
+    void testLoanLifecycle_CreateScheduleScenarioExport() throws Exception {
+        HttpResponse<String> created = post("/loans", "principal=10000&rate=0.05&term=12&frequency=Monthly");
+        assertEquals(201, created.statusCode());
+        long loanId = id(created.body());
+
+        HttpResponse<String> json = get("/loans/" + loanId + "/schedule");
+        assertEquals(200, json.statusCode());
+        assertTrue(json.body().startsWith("{\"loanId\":" + loanId + ",\"payments\":[{\"period\":1,\"principal\":814.40"));
+        assertTrue(json.body().contains("\"period\":12,"));
+
+        HttpResponse<String> csv = get("/loans/" + loanId + "/schedule?format=csv");
+        assertEquals(200, csv.statusCode());
+        assertTrue(csv.body().startsWith("Period,Principal,Interest,Total Payment,Balance\n1,814.40,41.67,856.07,"));
+        assertEquals(14, csv.body().split("\n").length);
+
+        HttpResponse<String> scenario = post("/loans/" + loanId + "/scenarios", "extraPayment=100");
+        assertEquals(201, scenario.statusCode());
+        assertTrue(scenario.body().contains("\"extraPayment\":100"));
+        assertNotEquals(loanId, id(scenario.body()));
+
+        HttpResponse<byte[]> pdf = client.send(request("/loans/" + loanId + "/export?format=pdf").GET().build(),
+                                               HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, pdf.statusCode());
+        assertEquals("%PDF", new String(pdf.body(), 0, 4));
+        assertTrue(pdf.headers().firstValue("Content-Disposition").orElse("").contains("schedule_" + loanId + ".pdf"));
+    }
+
+    @Test
+    void testScheduleAndExport_ApplyLoanEvents() throws Exception {
+        long loanId = id(post("/loans", "principal=100000&rate=0.05&term=120").body());
+        service.applyRateChange(loanId, 61, new BigDecimal("0.08"));
+        service.applyPrepayment(loanId, 70, new BigDecimal("5000"));
+
+        String[] csv = get("/loans/" + loanId + "/schedule?format=csv").body().split("\n");
+        assertEquals(116, csv.length);
+        assertTrue(csv[61].startsWith("61,"));
+        assertTrue(csv[61].contains(",374.70,"), csv[61]);
+        HttpResponse<String> export = get("/loans/" + loanId + "/export?format=csv");
+        assertEquals(200, export.statusCode());
+        assertEquals(String.join("\n", csv) + "\n", export.body());
+
+        HttpResponse<String> scenario = post("/loans/" + loanId + "/scenarios", "extraPayment=100000");
+        assertEquals(201, scenario.statusCode());
+        long scenarioId = id(scenario.body());
+        assertTrue(scenarioId > loanId);
+        assertEquals(200, get("/loans/" + scenarioId).statusCode());
+    }
+
+    @Test
+    void testErrors_MapToStatusCodes() throws Exception {
+        assertEquals(400, post("/loans", "principal=-5&rate=0.05&term=12").statusCode());
+        assertEquals(400, post("/loans", "principal=1000&rate=0.05").statusCode());
+        assertEquals(404, get("/loans/999/schedule").statusCode());
+        assertEquals(400, get("/loans/abc").statusCode());
+        assertEquals(404, get("/loans/1/unknown").statusCode());
+        assertEquals(404, post("/loansX", "principal=1000&rate=0.05&term=6").statusCode());
+        assertEquals(404, get("/loansX/1").statusCode());
+        long loanId = id(post("/loans", "principal=1000&rate=0.05&term=6").body());
+        HttpResponse<String> badFormat = get("/loans/" + loanId + "/export?format=xls");
+        assertEquals(400, badFormat.statusCode());
+        assertTrue(badFormat.body().contains("Unsupported format"));
+    }
+
+    @Test
+    void testConcurrentRequests_ShareOneService() throws Exception {
+        long loanId = id(post("/loans", "principal=250000&rate=0.045&term=360").body());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                responses.add(clients.submit(() -> get("/loans/" + loanId + "/schedule?format=csv")));
+            }
+            String first = responses.get(0).get().body();
+            for (Future<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+                assertEquals(first, response.get().body());
+            }
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String form) throws IOException, InterruptedException {
+        return client.send(request(path).header("Content-Type", "application/x-www-form-urlencoded")
+                                   .POST(HttpRequest.BodyPublishers.ofString(form)).build(),
+                           HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+    }
+
+    private static long id(String json) {
+        Matcher matcher = Pattern.compile("\"id\":(\\d+)").matcher(json);
+        assertTrue(matcher.find(), json);
+        return Long.parseLong(matcher.group(1));
+    }
+}
@@ -1,12 +1,22 @@
 package com.loanease.service;
 
+import com.loanease.calculator.ScheduleView;
+import com.loanease.metrics.MetricsRegistry;
 import com.loanease.model.Loan;
 import com.loanease.model.Payment;
+import com.loanease.model.ScenarioGrid;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AmortizationServiceTest {
@@ -33,6 +43,22 @@ public class AmortizationServiceTest {
                      schedule.get(schedule.size() - 1).getRemainingBalance());
     }
 
+    @Test
+    void testGenerateSchedule_RecordsMetrics() {
+        MetricsRegistry metrics = MetricsRegistry.global();
+        long generated = metrics.get(MetricsRegistry.GENERATE_SCHEDULE).getRowCount();
+        long lookups = metrics.get(MetricsRegistry.GET_LOAN).getCount();
+        long saves = metrics.get(MetricsRegistry.SAVE_SCHEDULE).getCount();
+        long loanId = service.saveLoan(new Loan(new BigDecimal("10000.00"), new BigDecimal("0.0500"), 12,
+                                                "Monthly", new BigDecimal("0.00")));
+        service.generateSchedule(loanId);
+        assertEquals(generated + 12, metrics.get(MetricsRegistry.GENERATE_SCHEDULE).getRowCount());
+        assertTrue(metrics.get(MetricsRegistry.GET_LOAN).getCount() > lookups);
+        assertEquals(saves + 1, metrics.get(MetricsRegistry.SAVE_SCHEDULE).getCount());
+        assertThrows(IllegalArgumentException.class, () -> service.generateSchedule(-1));
+        assertTrue(metrics.get(MetricsRegistry.GENERATE_SCHEDULE).getErrorCount() > 0);
+    }
+
     @Test
     void testGenerateSchedule_12Months() {
         Loan loan = new Loan(new BigDecimal("10000").setScale(2, RoundingMode.HALF_UP),
@@ -48,4 +74,242 @@ public class AmortizationServiceTest {
         assertEquals(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP),
                      schedule.get(schedule.size() - 1).getRemainingBalance());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetScheduleView_MatchesGeneratedSchedule() {
+        Loan loan = new Loan(new BigDecimal("10000").setScale(2, RoundingMode.HALF_UP),
+                             new BigDecimal("0.05").setScale(4, RoundingMode.HALF_UP),
+                             12, "Monthly", BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+        long loanId = service.saveLoan(loan);
+        List<Payment> schedule = service.generateSchedule(loanId);
+        ScheduleView view = service.getScheduleView(loanId);
+        assertEquals(schedule.get(5).getRemainingBalance(), view.getRemainingBalance(6));
+        assertEquals(schedule.get(11).getInterestPortion(), view.getPayment(12).getInterestPortion());
+    }
+
+    @Test
+    void testGenerateScheduleStreaming_PersistsSameRows() {
+        Loan loan = new Loan(new BigDecimal("5000").setScale(2, RoundingMode.HALF_UP),
+                             new BigDecimal("0.06").setScale(4, RoundingMode.HALF_UP),
+                             6, "Monthly", BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
+        long loanId = service.saveLoan(loan);
+        assertEquals(6, service.generateScheduleStreaming(loanId));
+        List<Payment> stored = new DatabaseService().getSchedule(loanId);
+        List<Payment> streamed = service.streamSchedule(loanId).collect(Collectors.toList());
+        assertEquals(6, stored.size());
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(streamed.get(i).getPrincipalPortion(), stored.get(i).getPrincipalPortion());
+            assertEquals(streamed.get(i).getRemainingBalance(), stored.get(i).getRemainingBalance());
+        }
+    }
+
+    @Test
+    void testSweepScenarios_PersistsNothing(@TempDir Path tempDir) throws SQLException {
+        try (ConnectionProvider provider = new ConnectionProvider(
+                new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("sweep.db")))) {
+            AmortizationService sweeping = new AmortizationService(new DatabaseService(provider));
+            long loanId = sweeping.saveLoan(new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 12,
+                                                     "Monthly", BigDecimal.ZERO));
+            ScenarioGrid grid = sweeping.sweepScenarios(loanId,
+                    List.of(new BigDecimal("0.04"), new BigDecimal("0.05")),
+                    List.of(BigDecimal.ZERO, new BigDecimal("500")));
+            assertEquals(12, grid.getPayoffPeriod(1, 0));
+            assertTrue(grid.getPayoffPeriod(1, 1) < 12);
+            assertTrue(grid.getInterestSavedCents(0, 0) > 0);
+            assertEquals(1, countRows(provider, "loans"));
+            assertEquals(0, countRows(provider, "schedule_payments"));
+        }
+    }
+
+    @Test
+    void testGenerateSchedule_IdenticalTermsShareOneCopy(@TempDir Path tempDir) throws SQLException {
+        try (ConnectionProvider provider = new ConnectionProvider(
+                new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("shared.db")))) {
+            DatabaseService db = new DatabaseService(provider);
+            AmortizationService shared = new AmortizationService(db);
+            long first = shared.saveLoan(new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 12,
+                                                  "Monthly", BigDecimal.ZERO));
+            long second = shared.saveLoan(new Loan(new BigDecimal("10000.00"), new BigDecimal("0.0500"), 12,
+                                                   "Monthly", new BigDecimal("0.00")));
+            shared.generateSchedule(first);
+            shared.generateSchedule(second);
+            shared.runScenario(first, null, null);
+
+            assertEquals(12, countRows(provider, "schedule_payments"));
+            assertEquals(0, countRows(provider, "payments"));
+            List<Payment> secondSchedule = db.getSchedule(second);
+            assertEquals(12, secondSchedule.size());
+            assertEquals(second, secondSchedule.get(0).getLoanId());
+            assertEquals(new BigDecimal("814.40"), secondSchedule.get(0).getPrincipalPortion());
+        }
+    }
+
+    @Test
+    void testMigrateToSharedSchedules_MovesOnlyMatchingSchedules(@TempDir Path tempDir) throws SQLException {
+        try (ConnectionProvider provider = new ConnectionProvider(
+                new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("legacy.db")))) {
+            DatabaseService db = new DatabaseService(provider);
+            AmortizationService migrating = new AmortizationService(db);
+            Loan terms = new Loan(new BigDecimal("5000"), new BigDecimal("0.06"), 6, "Monthly", BigDecimal.ZERO);
+            long legacyA = db.saveLoan(terms);
+            long legacyB = db.saveLoan(terms);
+            long custom = db.saveLoan(terms);
+            // Rows written the pre-sharing way, straight into payments
+            db.saveSchedule(legacyA, migrating.computeSchedule(legacyA, terms));
+            db.saveSchedule(legacyB, migrating.computeSchedule(legacyB, terms));
+            db.saveSchedule(custom, List.of(new Payment(custom, 1, new BigDecimal("5000.00"),
+                                                        BigDecimal.ZERO, BigDecimal.ZERO)));
+
+            assertEquals(2, migrating.migrateToSharedSchedules());
+            assertEquals(6, countRows(provider, "schedule_payments"));
+            assertEquals(1, countRows(provider, "payments"));
+            assertEquals(6, db.getSchedule(legacyA).size());
+            assertEquals(6, db.getSchedule(legacyB).size());
+            assertEquals(1, db.getSchedule(custom).size());
+            assertEquals(0, migrating.migrateToSharedSchedules());
+        }
+    }
+
+    @Test
+    void testApplyRateChange_RewritesOnlyTheSuffix(@TempDir Path tempDir) throws SQLException {
+        for (SchedulePersistence persistence : SchedulePersistence.values()) {
+            DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve(persistence + ".db"));
+            config.setSchedulePersistence(persistence);
+            try (ConnectionProvider provider = new ConnectionProvider(config)) {
+                DatabaseService db = new DatabaseService(provider);
+                AmortizationService variable = new AmortizationService(db);
+                Loan terms = new Loan(new BigDecimal("300000"), new BigDecimal("0.035"), 360, "Monthly", BigDecimal.ZERO);
+                long loanId = variable.saveLoan(terms);
+                long neighbour = variable.saveLoan(terms);
+                List<Payment> base = variable.generateSchedule(loanId);
+                variable.generateSchedule(neighbour);
+                int sharedRows = countRows(provider, "schedule_payments");
+
+                List<Payment> reset = variable.applyRateChange(loanId, 61, new BigDecimal("0.0625"));
+                assertEquals(61, reset.get(0).getPeriod());
+                assertEquals(300, countRows(provider, "payments"));
+                assertEquals(sharedRows, countRows(provider, "schedule_payments"));
+                variable.applyRateChange(loanId, 121, new BigDecimal("0.05"));
+                assertEquals(300, countRows(provider, "payments"));
+
+                List<Payment> stored = db.getSchedule(loanId);
+                assertEquals(360, stored.size());
+                for (int i = 0; i < 60; i++) {
+                    assertEquals(base.get(i).getRemainingBalance(), stored.get(i).getRemainingBalance());
+                }
+                assertTrue(stored.get(60).getInterestPortion().compareTo(base.get(60).getInterestPortion()) > 0);
+                assertEquals(BigDecimal.ZERO.setScale(2), stored.get(359).getRemainingBalance());
+                assertEquals(360, db.getColumnarSchedule(loanId).size());
+                assertEquals(base.get(100).getRemainingBalance(), db.getSchedule(neighbour).get(100).getRemainingBalance());
+
+                // Regenerating from scratch with both events gives the rows the incremental updates stored
+                List<Payment> full = variable.generateSchedule(loanId);
+                assertEquals(stored.size(), full.size());
+                for (int i = 0; i < full.size(); i++) {
+                    assertEquals(full.get(i).getPrincipalPortion(), stored.get(i).getPrincipalPortion(), "period " + (i + 1));
+                    assertEquals(full.get(i).getRemainingBalance(), stored.get(i).getRemainingBalance(), "period " + (i + 1));
+                }
+                assertEquals(2, db.getLoanEvents(loanId).size());
+            }
+        }
+    }
+
+    @Test
+    void testApplyPrepayment_UpdatesOnlyTheTail(@TempDir Path tempDir) throws SQLException {
+        try (ConnectionProvider provider = new ConnectionProvider(
+                new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("prepay.db")))) {
+            DatabaseService db = new DatabaseService(provider);
+            AmortizationService servicing = new AmortizationService(db);
+            long loanId = servicing.saveLoan(
+                    new Loan(new BigDecimal("250000"), new BigDecimal("0.045"), 300, "Monthly", BigDecimal.ZERO));
+            servicing.generateSchedule(loanId);
+            servicing.applyRateChange(loanId, 61, new BigDecimal("0.055"));
+            int ownRows = countRows(provider, "payments");
+
+            List<Payment> tail = servicing.applyPrepayment(loanId, 250, new BigDecimal("25000"));
+            assertEquals(250, tail.get(0).getPeriod());
+            assertTrue(countRows(provider, "payments") < ownRows);
+            List<Payment> withPrepayment = db.getSchedule(loanId);
+            assertEquals(249 + tail.size(), withPrepayment.size());
+            assertEquals(BigDecimal.ZERO.setScale(2), withPrepayment.get(withPrepayment.size() - 1).getRemainingBalance());
+
+            servicing.applyPrepayment(loanId, 120, new BigDecimal("10000"));
+            servicing.applyPrepayment(loanId, 120, new BigDecimal("15000"));
+            List<Payment> stored = db.getSchedule(loanId);
+            List<Payment> full = servicing.generateSchedule(loanId);
+            assertEquals(full.size(), stored.size());
+            for (int i = 0; i < full.size(); i++) {
+                assertEquals(full.get(i).getPrincipalPortion(), stored.get(i).getPrincipalPortion(), "period " + (i + 1));
+                assertEquals(full.get(i).getRemainingBalance(), stored.get(i).getRemainingBalance(), "period " + (i + 1));
+            }
+            assertEquals(3, db.getLoanEvents(loanId).size());
+            assertThrows(IllegalArgumentException.class,
+                    () -> servicing.applyPrepayment(loanId, 121, BigDecimal.ZERO));
+        }
+    }
+
+    @Test
+    void testStreamAndView_ApplyLoanEvents() {
+        long loanId = service.saveLoan(
+                new Loan(new BigDecimal("100000"), new BigDecimal("0.05"), 120, "Monthly", BigDecimal.ZERO));
+        service.generateSchedule(loanId);
+        service.applyRateChange(loanId, 61, new BigDecimal("0.08"));
+        service.applyPrepayment(loanId, 70, new BigDecimal("5000"));
+        List<Payment> stored = service.generateSchedule(loanId);
+        assertEquals(114, stored.size());
+        assertEquals(new BigDecimal("374.70"), stored.get(60).getInterestPortion());
+
+        List<Payment> streamed;
+        try (Stream<Payment> schedule = service.streamSchedule(loanId)) {
+            streamed = schedule.collect(Collectors.toList());
+        }
+        ScheduleView view = service.getScheduleView(loanId);
+        assertEquals(stored.size(), streamed.size());
+        assertEquals(stored.size(), view.getPeriodCount());
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(stored.get(i).getInterestPortion(), streamed.get(i).getInterestPortion(), "period " + (i + 1));
+            assertEquals(stored.get(i).getRemainingBalance(), view.getRemainingBalance(i + 1), "period " + (i + 1));
+        }
+        assertThrows(IllegalArgumentException.class, () -> view.getPayment(115));
+    }
+
+    @Test
+    void testApplyRateChange_ComputesPrefixWhenNothingStored() {
+        Loan terms = new Loan(new BigDecimal("100000"), new BigDecimal("0.05"), 120, "Monthly", BigDecimal.ZERO);
+        long loanId = service.saveLoan(terms);
+        List<Payment> reset = service.applyRateChange(loanId, 61, new BigDecimal("0.08"));
+        assertEquals(61, reset.get(0).getPeriod());
+        assertEquals(new BigDecimal("374.70"), reset.get(0).getInterestPortion());
+
+        long reference = service.saveLoan(terms);
+        service.generateSchedule(reference);
+        service.applyRateChange(reference, 61, new BigDecimal("0.08"));
+        DatabaseService db = new DatabaseService();
+        List<Payment> expected = db.getSchedule(reference);
+        List<Payment> stored = db.getSchedule(loanId);
+        assertEquals(120, stored.size());
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(expected.get(i).getRemainingBalance(), stored.get(i).getRemainingBalance(), "period " + (i + 1));
+        }
+    }
+
+    @Test
+    void testApplyRateChange_RejectsPeriodsWithoutBalance() {
+        Loan loan = new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 12, "Monthly", new BigDecimal("5000"));
+        long loanId = service.saveLoan(loan);
+        assertThrows(IllegalArgumentException.class, () -> service.applyRateChange(loanId, 6, new BigDecimal("0.06")));
+        service.generateSchedule(loanId);
+        assertThrows(IllegalArgumentException.class, () -> service.applyRateChange(loanId, 6, new BigDecimal("0.06")));
+        assertThrows(IllegalArgumentException.class, () -> service.applyRateChange(loanId, 13, new BigDecimal("0.06")));
+        assertEquals(2, service.applyRateChange(loanId, 2, new BigDecimal("0.06")).get(0).getPeriod());
+    }
+
+    private static int countRows(ConnectionProvider provider, String table) throws SQLException {
+        try (PooledConnection conn = provider.acquire();
+             Statement stmt = conn.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
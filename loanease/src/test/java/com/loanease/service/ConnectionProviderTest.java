@@ -0,0 +1,96 @@
+package com.loanease.service;
+
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionProviderTest {
+    @TempDir
+    Path tempDir;
+    private ConnectionProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("pool.db"));
+        config.setPoolSize(2);
+        provider = new ConnectionProvider(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testAcquire_ReusesPhysicalConnection() throws SQLException {
+        Connection first;
+        try (PooledConnection conn = provider.acquire()) {
+            first = conn.getConnection();
+        }
+        try (PooledConnection conn = provider.acquire()) {
+            assertSame(first, conn.getConnection());
+            assertFalse(conn.getConnection().isClosed());
+        }
+    }
+
+    @Test
+    void testPrepare_CachesStatements() throws SQLException {
+        try (PooledConnection conn = provider.acquire()) {
+            PreparedStatement first = conn.prepare("SELECT ?");
+            PreparedStatement second = conn.prepare("SELECT ?");
+            assertSame(first, second);
+            assertNotSame(first, conn.prepareWithGeneratedKeys("SELECT ?"));
+        }
+    }
+
+    @Test
+    void testRelease_RollsBackOpenTransaction() throws SQLException {
+        try (PooledConnection conn = provider.acquire()) {
+            conn.getConnection().setAutoCommit(false);
+        }
+        try (PooledConnection conn = provider.acquire()) {
+            assertTrue(conn.getConnection().getAutoCommit());
+        }
+    }
+
+    @Test
+    void testUnpooled_ClosesOnRelease() throws SQLException {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("unpooled.db"));
+        config.setPoolSize(0);
+        try (ConnectionProvider unpooled = new ConnectionProvider(config)) {
+            Connection physical;
+            try (PooledConnection conn = unpooled.acquire()) {
+                physical = conn.getConnection();
+            }
+            assertTrue(physical.isClosed());
+        }
+    }
+
+    @Test
+    void testClosedProvider_RejectsAcquire() {
+        provider.close();
+        assertThrows(SQLException.class, () -> provider.acquire());
+    }
+
+    @Test
+    void testServicesShareProvider() {
+        DatabaseService dbService = new DatabaseService(provider);
+        AmortizationService service = new AmortizationService(dbService);
+        Loan loan = new Loan(new BigDecimal("5000"), new BigDecimal("0.06"), 6, "Monthly", BigDecimal.ZERO);
+        long loanId = service.saveLoan(loan);
+        List<Payment> schedule = service.generateSchedule(loanId);
+        assertEquals(6, schedule.size());
+        assertEquals(6, dbService.getSchedule(loanId).size());
+        assertSame(provider, dbService.getConnectionProvider());
+    }
+}
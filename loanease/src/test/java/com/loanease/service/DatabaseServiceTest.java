@@ -1,12 +1,24 @@
 package com.loanease.service;
 
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.calculator.ScheduleKey;
 import com.loanease.model.Loan;
 import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,4 +52,193 @@ public class DatabaseServiceTest {
         assertEquals(schedule.get(0).getPrincipalPortion().setScale(2, RoundingMode.HALF_UP), 
                      retrieved.get(0).getPrincipalPortion().setScale(2, RoundingMode.HALF_UP));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSaveSchedule_BatchedAcrossBatchBoundary(@TempDir Path tempDir) {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("batch.db"));
+        config.setBatchSize(7);
+        try (ConnectionProvider provider = new ConnectionProvider(config)) {
+            DatabaseService batchedService = new DatabaseService(provider);
+            long loanId = batchedService.saveLoan(sampleLoan());
+            List<Payment> schedule = sampleSchedule(loanId, 30);
+            batchedService.saveSchedule(loanId, schedule);
+
+            List<Payment> retrieved = batchedService.getSchedule(loanId);
+            assertEquals(30, retrieved.size());
+            assertEquals(30, retrieved.get(29).getPeriod());
+        }
+    }
+
+    @Test
+    void testConstructor_DefersDatabaseSetupToFirstUse(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("lazy.db");
+        try (ConnectionProvider provider = new ConnectionProvider(new DatabaseConfig("jdbc:sqlite:" + file))) {
+            DatabaseService lazyService = new DatabaseService(provider);
+            assertFalse(file.toFile().exists());
+            assertNull(lazyService.getLoan(1));
+            assertTrue(file.toFile().exists());
+            assertTrue(lazyService.saveLoan(sampleLoan()) > 0);
+        }
+    }
+
+    @Test
+    void testSaveSchedules_MultiLoanRollsBackOnFailure(@TempDir Path tempDir) {
+        try (ConnectionProvider provider = new ConnectionProvider(
+                new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("multi.db")))) {
+            DatabaseService multiService = new DatabaseService(provider);
+            long first = multiService.saveLoan(sampleLoan());
+            long second = multiService.saveLoan(sampleLoan());
+            Map<Long, List<Payment>> schedules = new LinkedHashMap<>();
+            schedules.put(first, sampleSchedule(first, 12));
+            schedules.put(second, sampleSchedule(second, 12));
+            multiService.saveSchedules(schedules);
+            assertEquals(12, multiService.getSchedule(first).size());
+            assertEquals(12, multiService.getSchedule(second).size());
+
+            // Re-inserting the second schedule violates the primary key, so the new third one must not persist
+            long third = multiService.saveLoan(sampleLoan());
+            Map<Long, List<Payment>> conflicting = new LinkedHashMap<>();
+            conflicting.put(third, sampleSchedule(third, 12));
+            conflicting.put(second, sampleSchedule(second, 12));
+            assertThrows(RuntimeException.class, () -> multiService.saveSchedules(conflicting));
+            assertTrue(multiService.getSchedule(third).isEmpty());
+        }
+    }
+
+    @Test
+    void testCentsStorage_StoresIntegersAndReadsColumnar(@TempDir Path tempDir) throws SQLException {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("cents.db"));
+        config.setAmountStorage(AmountStorage.CENTS);
+        try (ConnectionProvider provider = new ConnectionProvider(config)) {
+            DatabaseService centsService = new DatabaseService(provider);
+            assertEquals(AmountStorage.CENTS, centsService.getAmountStorage());
+            Loan loan = new Loan(new BigDecimal("10000.55"), new BigDecimal("0.0525"), 12, "Monthly", BigDecimal.ZERO);
+            List<Payment> schedule = new LongCentsScheduleEngine(new FinancialCalculator()).generateSchedule(0, loan);
+            long loanId = centsService.saveLoan(loan);
+            centsService.saveSharedSchedule(loanId, ScheduleKey.of(loan), Schedule.fromPayments(loanId, schedule));
+
+            try (PooledConnection conn = provider.acquire();
+                 Statement stmt = conn.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT typeof(principal), principal, annual_interest_rate " +
+                                                  "FROM loans WHERE id = " + loanId)) {
+                assertTrue(rs.next());
+                assertEquals("integer", rs.getString(1));
+                assertEquals(1000055, rs.getLong(2));
+                assertEquals(525, rs.getLong(3));
+            }
+            centsService.getLoanRepository().invalidateAll();
+            assertEquals(new BigDecimal("0.0525"), centsService.getLoan(loanId).getAnnualInterestRate());
+            assertEquals(new BigDecimal("10000.55"), centsService.getLoan(loanId).getPrincipal());
+
+            Schedule columnar = centsService.getColumnarSchedule(loanId);
+            assertEquals(12, columnar.size());
+            List<Payment> retrieved = centsService.getSchedule(loanId);
+            for (int i = 0; i < schedule.size(); i++) {
+                assertEquals(schedule.get(i).getPrincipalPortion(), retrieved.get(i).getPrincipalPortion());
+                assertEquals(schedule.get(i).getRemainingBalance(), retrieved.get(i).getRemainingBalance());
+                assertEquals(schedule.get(i).getInterestPortion(), columnar.getPayment(i).getInterestPortion());
+            }
+        }
+    }
+
+    @Test
+    void testCentsMigration_ConvertsExistingDatabase(@TempDir Path tempDir) {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("legacy.db"));
+        long ownRows;
+        long shared;
+        try (ConnectionProvider provider = new ConnectionProvider(config)) {
+            DatabaseService legacy = new DatabaseService(provider);
+            assertEquals(AmountStorage.DECIMAL, legacy.getAmountStorage());
+            ownRows = legacy.saveLoan(sampleLoan());
+            legacy.saveSchedule(ownRows, sampleSchedule(ownRows, 12));
+            Loan loan = new Loan(new BigDecimal("1234.56"), new BigDecimal("0.0399"), 24, "Monthly", BigDecimal.ONE);
+            shared = legacy.saveLoan(loan);
+            legacy.saveSharedSchedule(shared, ScheduleKey.of(loan),
+                    new LongCentsScheduleEngine(new FinancialCalculator()).generateSchedule(shared, loan));
+
+            List<Payment> before = legacy.getSchedule(shared);
+            assertTrue(CentsMigration.migrate(provider));
+            assertFalse(CentsMigration.migrate(provider));
+
+            DatabaseService migrated = new DatabaseService(provider);
+            assertEquals(AmountStorage.CENTS, migrated.getAmountStorage());
+            assertEquals(new BigDecimal("1234.56"), migrated.getLoan(shared).getPrincipal());
+            assertEquals(new BigDecimal("1.00"), migrated.getLoan(shared).getExtraPayment());
+            assertEquals(12, migrated.getSchedule(ownRows).size());
+            assertEquals(new BigDecimal("988.00"), migrated.getSchedule(ownRows).get(11).getRemainingBalance());
+            List<Payment> after = migrated.getSchedule(shared);
+            assertEquals(before.size(), after.size());
+            for (int i = 0; i < before.size(); i++) {
+                assertEquals(before.get(i).getPrincipalPortion(), after.get(i).getPrincipalPortion());
+                assertEquals(before.get(i).getInterestPortion(), after.get(i).getInterestPortion());
+                assertEquals(before.get(i).getRemainingBalance(), after.get(i).getRemainingBalance());
+            }
+            assertTrue(migrated.saveLoan(sampleLoan()) > shared);
+        }
+    }
+
+    @Test
+    void testRegeneratePersistence_StoresOnlyChecksumAndVerifiesOnRead(@TempDir Path tempDir) throws SQLException {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("regenerate.db"));
+        config.setSchedulePersistence(SchedulePersistence.REGENERATE);
+        try (ConnectionProvider provider = new ConnectionProvider(config)) {
+            DatabaseService regenerating = new DatabaseService(provider);
+            AmortizationService service = new AmortizationService(regenerating);
+            long loanId = service.saveLoan(
+                    new Loan(new BigDecimal("250000"), new BigDecimal("0.0525"), 360, "Monthly", new BigDecimal("100")));
+            List<Payment> generated = service.generateSchedule(loanId);
+            long streamedId = service.saveLoan(
+                    new Loan(new BigDecimal("8000"), new BigDecimal("0.07"), 48, "Monthly", BigDecimal.ZERO));
+            assertEquals(48, service.generateScheduleStreaming(streamedId));
+
+            try (PooledConnection conn = provider.acquire();
+                 Statement stmt = conn.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM schedule_payments")) {
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+            }
+            List<Payment> read = regenerating.getSchedule(loanId);
+            assertEquals(generated.size(), read.size());
+            for (int i = 0; i < generated.size(); i++) {
+                assertEquals(generated.get(i).getPrincipalPortion(), read.get(i).getPrincipalPortion());
+                assertEquals(generated.get(i).getRemainingBalance(), read.get(i).getRemainingBalance());
+            }
+            assertEquals(48, regenerating.getColumnarSchedule(streamedId).size());
+
+            // A schedule that no longer matches its checksum is reported, not returned
+            try (PooledConnection conn = provider.acquire();
+                 Statement stmt = conn.getConnection().createStatement()) {
+                stmt.execute("UPDATE schedules SET checksum = checksum + 1");
+            }
+            assertThrows(IllegalStateException.class, () -> regenerating.getSchedule(loanId));
+            assertThrows(IllegalStateException.class, () -> regenerating.getColumnarSchedule(streamedId));
+        }
+    }
+
+    @Test
+    void testSaveLoansWithSchedules_RejectsLoansOffTheStoredScale() {
+        Loan offGrid = new Loan(new BigDecimal("10000"), new BigDecimal("0.05375"), 12, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = new LongCentsScheduleEngine(new FinancialCalculator()).generateSchedule(0, offGrid);
+        assertThrows(IllegalArgumentException.class,
+                () -> dbService.saveLoansWithSchedules(List.of(offGrid), List.of(schedule)));
+
+        Loan stored = AmountStorage.atStoredScale(offGrid);
+        List<Payment> storedSchedule = new LongCentsScheduleEngine(new FinancialCalculator()).generateSchedule(0, stored);
+        long loanId = dbService.saveLoansWithSchedules(List.of(stored), List.of(storedSchedule))[0];
+        assertEquals(new BigDecimal("0.0538"), dbService.getLoan(loanId).getAnnualInterestRate());
+        assertEquals(storedSchedule.get(0).getInterestPortion(), dbService.getSchedule(loanId).get(0).getInterestPortion());
+    }
+
+    private static Loan sampleLoan() {
+        return new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 12, "Monthly", BigDecimal.ZERO);
+    }
+
+    private static List<Payment> sampleSchedule(long loanId, int periods) {
+        List<Payment> schedule = new ArrayList<>();
+        for (int period = 1; period <= periods; period++) {
+            schedule.add(new Payment(loanId, period, new BigDecimal("100.00"), new BigDecimal("10.00"),
+                                     new BigDecimal(1000 - period).setScale(2, RoundingMode.HALF_UP)));
+        }
+        return schedule;
+    }
+}
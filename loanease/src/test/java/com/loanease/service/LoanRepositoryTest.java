@@ -0,0 +1,105 @@
+package com.loanease.service;
+
+import com.loanease.calculator.GoalSeekSolver;
+import com.loanease.model.Loan;
+import com.loanease.util.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoanRepositoryTest {
+    @TempDir
+    Path tempDir;
+    private ConnectionProvider provider;
+    private DatabaseService dbService;
+    private LoanRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        provider = new ConnectionProvider(new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("loans.db")));
+        dbService = new DatabaseService(provider);
+        repository = dbService.getLoanRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testFindById_RepeatedLookupsDoNotQuery() throws SQLException {
+        long[] ids = dbService.saveLoans(List.of(
+                new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 12, "Monthly", BigDecimal.ZERO)));
+        Loan first = repository.findById(ids[0]);
+        assertEquals(new BigDecimal("10000.00"), first.getPrincipal());
+        assertEquals(new BigDecimal("0.0500"), first.getAnnualInterestRate());
+        assertEquals(ids[0], first.getId());
+
+        // Once cached, the row is not read again
+        execute("DELETE FROM loans");
+        AmortizationService service = new AmortizationService(dbService);
+        assertEquals(12, service.computeSchedule(ids[0], repository.findById(ids[0])).size());
+        service.sweepScenarios(ids[0], List.of(new BigDecimal("0.04")), List.of(BigDecimal.ZERO));
+        service.solveExtraPayment(ids[0], GoalSeekSolver.Goal.payoffBy(10));
+
+        CacheStats stats = service.getLoanCacheStats();
+        assertEquals(1, stats.getMisses());
+        assertEquals(3, stats.getHits());
+    }
+
+    @Test
+    void testSave_CachesStoredFormAndInvalidateRereads() throws SQLException {
+        Loan loan = new Loan(new BigDecimal("5000.004"), new BigDecimal("0.06125"), 6, "Monthly", null);
+        long loanId = dbService.saveLoan(loan);
+        assertEquals(loanId, loan.getId());
+
+        Loan cached = dbService.getLoan(loanId);
+        assertEquals(new BigDecimal("5000.00"), cached.getPrincipal());
+        assertEquals(new BigDecimal("0.0613"), cached.getAnnualInterestRate());
+        assertEquals(new BigDecimal("0.00"), cached.getExtraPayment());
+        assertEquals(1, repository.getCacheStats().getHits());
+
+        execute("UPDATE loans SET term_in_months = 9 WHERE id = " + loanId);
+        assertEquals(6, dbService.getLoan(loanId).getTermInMonths());
+        repository.invalidate(loanId);
+        assertEquals(9, dbService.getLoan(loanId).getTermInMonths());
+        assertNull(dbService.getLoan(loanId + 1));
+    }
+
+    @Test
+    void testFindById_SqlErrorIsRaised() throws SQLException {
+        long loanId = dbService.saveLoan(
+                new Loan(new BigDecimal("1000"), new BigDecimal("0.05"), 12, "Monthly", BigDecimal.ZERO));
+        repository.invalidateAll();
+        execute("DROP TABLE loans");
+        RuntimeException e = assertThrows(RuntimeException.class, () -> dbService.getLoan(loanId));
+        assertTrue(e.getMessage().startsWith("Failed to retrieve loan"));
+    }
+
+    @Test
+    void testFindById_CacheCanBeDisabled() throws SQLException {
+        DatabaseConfig config = new DatabaseConfig("jdbc:sqlite:" + tempDir.resolve("uncached.db"));
+        config.setLoanCacheSize(0);
+        try (ConnectionProvider uncached = new ConnectionProvider(config)) {
+            DatabaseService service = new DatabaseService(uncached);
+            long loanId = service.saveLoan(
+                    new Loan(new BigDecimal("1000"), new BigDecimal("0.05"), 12, "Monthly", BigDecimal.ZERO));
+            assertNotNull(service.getLoan(loanId));
+            assertEquals(0, service.getLoanRepository().getCacheStats().getHits());
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (PooledConnection conn = provider.acquire();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.loanease.ui;
+
+import com.loanease.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoanEaseBatchTest {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    void testRun_StreamsSchedulesFromStdin() {
+        String input = "principal,rate,term,frequency,extraPayment\n" +
+                       "# two loans\n" +
+                       "10000,0.05,12\n" +
+                       "\n" +
+                       "5000, 0.06, 6, Monthly, 100\n";
+        assertEquals(LoanEaseBatch.OK, run(input));
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(LoanEaseBatch.HEADER.strip(), lines[0]);
+        assertEquals("1,1,814.40,41.67,856.07,9185.60", lines[1]);
+        assertEquals("1,12,", lines[12].substring(0, 5));
+        assertTrue(lines[13].startsWith("2,1,"));
+        assertTrue(lines[lines.length - 1].endsWith(",0.00"));
+        assertTrue(err.toString().contains("Processed 2 loans (0 rejected)"));
+    }
+
+    @Test
+    void testRun_FirstScheduleIsFlushedBeforeInputEnds() throws Exception {
+        PipedOutputStream feed = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(feed);
+        int[] status = new int[1];
+        Thread batch = new Thread(() -> status[0] = LoanEaseBatch.run(
+                new String[0], in, new PrintStream(out), new PrintStream(err)));
+        batch.start();
+        feed.write("10000,0.05,12\n".getBytes(StandardCharsets.US_ASCII));
+        feed.flush();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!out.toString(StandardCharsets.US_ASCII).contains("\n1,12,") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(out.toString(StandardCharsets.US_ASCII).contains("\n1,12,"));
+        feed.close();
+        batch.join();
+        assertEquals(LoanEaseBatch.OK, status[0]);
+    }
+
+    @Test
+    void testRun_RejectedLoansSetStatusButOthersRun() {
+        String input = "10000,0.05,12\n-5,0.05,12\n1000,abc,12\n2000,0.05\n";
+        assertEquals(LoanEaseBatch.LOAN_ERRORS, run(input, "--no-schedules"));
+        assertEquals("", out.toString());
+        String errors = err.toString();
+        assertTrue(errors.contains("Line 2: Principal must be positive"));
+        assertTrue(errors.contains("Line 3: Invalid number"));
+        assertTrue(errors.contains("Line 4: Expected principal,rate,term"));
+        assertTrue(errors.contains("Processed 1 loans (3 rejected), 12 payments"));
+    }
+
+    @Test
+    void testRun_LoanTooLargeForTheEngineIsRejected() {
+        String input = "10000,0.05,12\n1000000000000000000000,0.05,12\n5000,0.06,6\n";
+        assertEquals(LoanEaseBatch.LOAN_ERRORS, run(input));
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(1 + 12 + 6, lines.length);
+        assertTrue(lines[13].startsWith("2,1,"));
+        String errors = err.toString();
+        assertTrue(errors.contains("Line 2: "), errors);
+        assertTrue(errors.contains("Processed 2 loans (1 rejected), 18 payments"), errors);
+    }
+
+    @Test
+    void testRun_WritesExportsAndReadsJobFile(@TempDir Path tempDir) throws Exception {
+        Path jobFile = tempDir.resolve("loans.csv");
+        Files.writeString(jobFile, "10000,0.05,12\n20000,0.04,24\n");
+        Path exports = tempDir.resolve("exports");
+        Path output = tempDir.resolve("schedules.csv");
+        assertEquals(LoanEaseBatch.OK, run("", "--input", jobFile.toString(), "--output", output.toString(),
+                                           "--export-dir", exports.toString(), "--export", "csv,pdf"));
+        assertEquals(1 + 12 + 24, Files.readAllLines(output).size());
+        assertTrue(Files.readString(exports.resolve("schedule_2.csv")).startsWith("Period,Principal"));
+        assertTrue(Files.size(exports.resolve("schedule_1.pdf")) > 0);
+    }
+
+    @Test
+    void testRun_MetricsReport() {
+        assertEquals(LoanEaseBatch.OK, run("10000,0.05,12\n20000,0.04,24\n", "--no-schedules", "--metrics"));
+        assertTrue(err.toString().contains("generateSchedule"));
+        assertTrue(MetricsRegistry.global().get(MetricsRegistry.GENERATE_SCHEDULE).getRowCount() >= 36);
+    }
+
+    @Test
+    void testRun_UsageErrors() {
+        assertEquals(LoanEaseBatch.FAILED, run("", "--bogus"));
+        assertEquals(LoanEaseBatch.FAILED, run("", "--export", "csv"));
+        assertEquals(LoanEaseBatch.FAILED, run("", "--input", "does-not-exist.csv"));
+        assertTrue(err.toString().contains("Usage: loanease batch"));
+    }
+
+    private int run(String input, String... args) {
+        return LoanEaseBatch.run(args, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                                 new PrintStream(out), new PrintStream(err));
+    }
+}
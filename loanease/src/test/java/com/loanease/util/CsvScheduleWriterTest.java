@@ -0,0 +1,97 @@
+package com.loanease.util;
+
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import com.loanease.model.Schedule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvScheduleWriterTest {
+    @TempDir
+    Path tempDir;
+    private final LongCentsScheduleEngine engine = new LongCentsScheduleEngine(new FinancialCalculator());
+
+    @Test
+    void testWrite_MatchesFormatterOutput() throws IOException {
+        Loan[] loans = {
+            new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 12, "Monthly", BigDecimal.ZERO),
+            new Loan(new BigDecimal("987654321.09"), new BigDecimal("0.1999"), 480, "Monthly", new BigDecimal("1500.50")),
+            new Loan(new BigDecimal("0.99"), BigDecimal.ZERO, 3, "Monthly", BigDecimal.ZERO)
+        };
+        for (Loan loan : loans) {
+            List<Payment> schedule = engine.generateSchedule(1, loan);
+            Path file = tempDir.resolve("schedule.csv");
+            assertEquals(schedule.size(), new CsvScheduleWriter().write(schedule, file));
+            assertEquals(formatted(schedule), Files.readAllLines(file));
+        }
+    }
+
+    @Test
+    void testWrite_ColumnarAndStreamMatchList() throws IOException {
+        Loan loan = new Loan(new BigDecimal("250000"), new BigDecimal("0.0525"), 360, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = engine.generateSchedule(1, loan);
+        Schedule columnar = engine.generateColumnar(1, loan);
+        CsvScheduleWriter writer = new CsvScheduleWriter();
+        writer.write(schedule, tempDir.resolve("list.csv"));
+        writer.write(columnar, tempDir.resolve("columnar.csv"));
+        writer.write(engine.streamSchedule(1, loan), tempDir.resolve("stream.csv"));
+        byte[] expected = Files.readAllBytes(tempDir.resolve("list.csv"));
+        assertArrayEquals(expected, Files.readAllBytes(tempDir.resolve("columnar.csv")));
+        assertArrayEquals(expected, Files.readAllBytes(tempDir.resolve("stream.csv")));
+    }
+
+    @Test
+    void testWrite_GzipRoundTrip() throws IOException {
+        Loan loan = new Loan(new BigDecimal("250000"), new BigDecimal("0.0525"), 360, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = engine.generateSchedule(1, loan);
+        Path file = tempDir.resolve("schedule.csv.gz");
+        new CsvScheduleWriter(true).write(schedule, file);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.US_ASCII))) {
+            assertEquals(formatted(schedule), reader.lines().collect(Collectors.toList()));
+        }
+        assertTrue(Files.size(file) < Files.size(writePlain(schedule)));
+    }
+
+    private Path writePlain(List<Payment> schedule) throws IOException {
+        Path file = tempDir.resolve("plain.csv");
+        new CsvScheduleWriter().write(schedule, file);
+        return file;
+    }
+
+    /** The rows exactly as the original String.format based exporter produced them. */
+    private static List<String> formatted(List<Payment> schedule) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Period,Principal,Interest,Total Payment,Balance");
+        BigDecimal totalPrincipal = BigDecimal.ZERO;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        BigDecimal totalPayment = BigDecimal.ZERO;
+        for (Payment payment : schedule) {
+            BigDecimal principal = payment.getPrincipalPortion().setScale(2, RoundingMode.HALF_UP);
+            BigDecimal interest = payment.getInterestPortion().setScale(2, RoundingMode.HALF_UP);
+            BigDecimal amount = principal.add(interest);
+            totalPrincipal = totalPrincipal.add(principal);
+            totalInterest = totalInterest.add(interest);
+            totalPayment = totalPayment.add(amount);
+            lines.add(String.format("%d,%.2f,%.2f,%.2f,%.2f", payment.getPeriod(), principal, interest, amount,
+                                    payment.getRemainingBalance()));
+        }
+        lines.add(String.format("Totals,%.2f,%.2f,%.2f,", totalPrincipal, totalInterest, totalPayment));
+        return lines;
+    }
+}
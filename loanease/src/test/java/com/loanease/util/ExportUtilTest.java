@@ -1,18 +1,24 @@
 package com.loanease.util;
 
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
 import com.loanease.model.Loan;
 import com.loanease.model.Payment;
 import com.loanease.service.AmortizationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ExportUtilTest {
@@ -114,4 +120,34 @@ public class ExportUtilTest {
         assertEquals(schedule.size() + 2, lines.size()); // Header + payments + totals row
         file.delete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExportToCSV_StreamMatchesList() throws IOException {
+        Loan loan = new Loan(new BigDecimal("5000"), new BigDecimal("0.06"), 6, "Monthly", BigDecimal.ZERO);
+        long loanId = amortizationService.saveLoan(loan);
+        List<Payment> schedule = amortizationService.generateSchedule(loanId);
+        exportUtil.exportToCSV(schedule, "list_schedule.csv");
+        exportUtil.exportToCSV(amortizationService.streamSchedule(loanId), "stream_schedule.csv");
+        File listFile = new File("list_schedule.csv");
+        File streamFile = new File("stream_schedule.csv");
+        assertEquals(Files.readAllLines(listFile.toPath()), Files.readAllLines(streamFile.toPath()));
+        listFile.delete();
+        streamFile.delete();
+
+        assertThrows(IllegalArgumentException.class, () -> exportUtil.exportToCSV(Stream.<Payment>empty(), "empty.csv"));
+    }
+
+    @Test
+    void testExportToCSV_GzipPathIsCompressed() throws IOException {
+        Loan loan = new Loan(new BigDecimal("5000"), new BigDecimal("0.06"), 6, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = new LongCentsScheduleEngine(new FinancialCalculator()).generateSchedule(1, loan);
+        File file = new File("gzip_schedule.csv.gz");
+        exportUtil.exportToCSV(schedule, file.getPath());
+        try (GZIPInputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            assertTrue(content.startsWith("Period,Principal,Interest,Total Payment,Balance\n"));
+            assertTrue(content.contains("Totals,5000.00,"));
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,80 @@
+package com.loanease.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LruCacheTest {
+
+    @Test
+    void testGetOrCompute_CountsHitsAndMisses() {
+        LruCache<String, Integer> cache = new LruCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(3, cache.getOrCompute("abc", k -> { loads.incrementAndGet(); return k.length(); }));
+        assertEquals(3, cache.getOrCompute("abc", k -> { loads.incrementAndGet(); return k.length(); }));
+        assertEquals(1, loads.get());
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>(2); // Two single-entry segments at most
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.put(3, "three");
+        assertTrue(cache.size() <= 2);
+        assertEquals(1, cache.getStats().getEvictions());
+
+        LruCache<Integer, String> single = new LruCache<>(1);
+        single.put(1, "one");
+        single.put(2, "two");
+        assertNull(single.get(1));
+        assertEquals("two", single.get(2));
+    }
+
+    @Test
+    void testInvalidateAndClear() {
+        LruCache<Integer, String> cache = new LruCache<>(100);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.invalidate(1);
+        assertNull(cache.get(1));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<>(0));
+    }
+
+    @Test
+    void testConcurrentAccess_StaysBoundedAndConsistent() throws Exception {
+        LruCache<Integer, Integer> cache = new LruCache<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        int key = (i * 31 + seed) % 200;
+                        assertEquals(key * 2, cache.getOrCompute(key, k -> k * 2));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        CacheStats stats = cache.getStats();
+        assertEquals(80_000, stats.getHits() + stats.getMisses());
+        assertTrue(cache.size() <= 64);
+    }
+}
@@ -0,0 +1,87 @@
+package com.loanease.util;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.loanease.calculator.FinancialCalculator;
+import com.loanease.calculator.LongCentsScheduleEngine;
+import com.loanease.model.Loan;
+import com.loanease.model.Payment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PdfScheduleWriterTest {
+    @TempDir
+    Path tempDir;
+    private final LongCentsScheduleEngine engine = new LongCentsScheduleEngine(new FinancialCalculator());
+
+    @Test
+    void testAddLoan_LongScheduleSpansPagesWithTotals() throws IOException {
+        Loan loan = new Loan(new BigDecimal("400000"), new BigDecimal("0.065"), 480, "Monthly", BigDecimal.ZERO);
+        String path = tempDir.resolve("long.pdf").toString();
+        try (PdfScheduleWriter writer = new PdfScheduleWriter(path)) {
+            writer.addLoan(loan, engine.streamSchedule(1, loan).iterator());
+        }
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(path))) {
+            assertTrue(pdf.getNumberOfPages() > 10);
+            String first = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(first.contains("LoanEase Amortization Schedule"));
+            assertTrue(first.contains("Principal: $400,000.00"));
+            String last = PdfTextExtractor.getTextFromPage(pdf.getLastPage());
+            assertTrue(last.contains("480"));
+            assertTrue(last.contains("Totals"));
+            assertTrue(last.contains("$400,000.00"));
+        }
+    }
+
+    @Test
+    void testAddLoan_ManyLoansInOneDocument() throws IOException {
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            loans.add(new Loan(new BigDecimal(1000 * i), new BigDecimal("0.05"), 24, "Monthly", BigDecimal.ZERO));
+        }
+        String path = tempDir.resolve("portfolio.pdf").toString();
+        new ExportUtil().exportToPDF(loans, loan -> engine.streamSchedule(0, loan), path);
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(path))) {
+            assertTrue(pdf.getNumberOfPages() >= 25);
+            String last = PdfTextExtractor.getTextFromPage(pdf.getLastPage());
+            assertTrue(last.contains("Principal: $25,000.00"));
+        }
+    }
+
+    @Test
+    void testAddLoan_ColumnarMatchesPaymentRows() throws IOException {
+        Loan loan = new Loan(new BigDecimal("10000"), new BigDecimal("0.05"), 12, "Monthly", BigDecimal.ZERO);
+        List<Payment> schedule = engine.generateSchedule(1, loan);
+        String fromList = tempDir.resolve("list.pdf").toString();
+        String fromColumns = tempDir.resolve("columns.pdf").toString();
+        try (PdfScheduleWriter writer = new PdfScheduleWriter(fromList)) {
+            writer.addLoan(loan, schedule);
+        }
+        try (PdfScheduleWriter writer = new PdfScheduleWriter(fromColumns)) {
+            writer.addLoan(loan, engine.generateColumnar(1, loan));
+        }
+        assertEquals(pageText(fromList), pageText(fromColumns));
+        assertTrue(pageText(fromList).contains("$814.40"));
+    }
+
+    @Test
+    void testDollars_MatchesFormatter() {
+        long[] samples = {0, 5, 99, 100, 123456, 100000000, 98765432101L, -123456};
+        for (long cents : samples) {
+            assertEquals(String.format("$%,.2f", BigDecimal.valueOf(cents, 2)), PdfScheduleWriter.dollars(cents));
+        }
+    }
+
+    private static String pageText(String path) throws IOException {
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(path))) {
+            return PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+        }
+    }
+}